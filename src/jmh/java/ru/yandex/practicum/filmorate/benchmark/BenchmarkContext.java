@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public final class BenchmarkContext {
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start() {
+        return start(Engine.H2);
+    }
+
+    public static ConfigurableApplicationContext start(Engine engine) {
+        return new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(arguments(engine));
+    }
+
+    public static ConfigurableApplicationContext startWeb(String... properties) {
+        List<String> args = new ArrayList<>(List.of(arguments(Engine.H2)));
+        args.add("--server.port=0");
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run(args.toArray(new String[0]));
+    }
+
+    // Аргументы командной строки перекрывают application.properties, иначе бенчмарк писал бы в файловую базу
+    private static String[] arguments(Engine engine) {
+        return new String[]{
+                "--spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1"
+                        + engine.urlOptions,
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"};
+    }
+
+    public enum Engine {
+        H2(""),
+        // Встроенная замена PostgreSQL, как в профиле postgres
+        POSTGRESQL(";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH");
+
+        private final String urlOptions;
+
+        Engine(String urlOptions) {
+            this.urlOptions = urlOptions;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+
+public class BenchmarkDataGenerator {
+    private static final int BATCH_SIZE = 10_000;
+    private static final int MPA_RATINGS = 5;
+    private static final int GENRES = 6;
+
+    private final Random random;
+
+    public BenchmarkDataGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public Dataset generateLikes(int films, int users, int likesPerUser, Distribution distribution) {
+        Sampler sampler = new Sampler(films, distribution);
+        long[] filmIds = new long[users * likesPerUser];
+        long[] userIds = new long[users * likesPerUser];
+        int size = 0;
+
+        for (int user = 1; user <= users; user++) {
+            Set<Long> likedFilms = new HashSet<>();
+            for (int i = 0; i < likesPerUser; i++) {
+                long filmId = sampler.next();
+                if (likedFilms.add(filmId)) {
+                    filmIds[size] = filmId;
+                    userIds[size] = user;
+                    size++;
+                }
+            }
+        }
+
+        return new Dataset(films, users, Arrays.copyOf(filmIds, size), Arrays.copyOf(userIds, size));
+    }
+
+    public Dataset generateFriendships(int users, int friendsPerUser, Distribution distribution) {
+        Sampler sampler = new Sampler(users, distribution);
+        long[] friendIds = new long[users * friendsPerUser];
+        long[] userIds = new long[users * friendsPerUser];
+        int size = 0;
+
+        for (int user = 1; user <= users; user++) {
+            Set<Long> friends = new HashSet<>();
+            for (int i = 0; i < friendsPerUser; i++) {
+                long friendId = sampler.next();
+                if (friendId != user && friends.add(friendId)) {
+                    friendIds[size] = friendId;
+                    userIds[size] = user;
+                    size++;
+                }
+            }
+        }
+
+        return new Dataset(0, users, Arrays.copyOf(friendIds, size), Arrays.copyOf(userIds, size));
+    }
+
+    public void loadFilms(JdbcTemplate jdbcTemplate, Dataset dataset) {
+        String filmsSql = "INSERT INTO films (film_id, name, description, release_date, duration, mpa_rating_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?)";
+        String genresSql = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
+        List<Object[]> films = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> genres = new ArrayList<>(BATCH_SIZE);
+
+        for (long filmId = 1; filmId <= dataset.films(); filmId++) {
+            films.add(new Object[]{filmId, "Film " + filmId, "Description of film " + filmId,
+                    Date.valueOf(releaseDate(filmId)), 90 + filmId % 60, 1 + filmId % MPA_RATINGS});
+            genres.add(new Object[]{filmId, 1 + filmId % GENRES});
+            if (films.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(filmsSql, films);
+                jdbcTemplate.batchUpdate(genresSql, genres);
+                films.clear();
+                genres.clear();
+            }
+        }
+        jdbcTemplate.batchUpdate(filmsSql, films);
+        jdbcTemplate.batchUpdate(genresSql, genres);
+        jdbcTemplate.execute("ALTER TABLE films ALTER COLUMN film_id RESTART WITH " + (dataset.films() + 1));
+    }
+
+    public void loadUsers(JdbcTemplate jdbcTemplate, Dataset dataset) {
+        String sql = "INSERT INTO users (user_id, email, login, name, birthday) VALUES (?, ?, ?, ?, ?)";
+        List<Object[]> users = new ArrayList<>(BATCH_SIZE);
+
+        for (long userId = 1; userId <= dataset.users(); userId++) {
+            users.add(new Object[]{userId, "user" + userId + "@example.com", "user" + userId,
+                    "User " + userId, Date.valueOf(LocalDate.of(1990, 1, 1))});
+            if (users.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(sql, users);
+                users.clear();
+            }
+        }
+        jdbcTemplate.batchUpdate(sql, users);
+        jdbcTemplate.execute("ALTER TABLE users ALTER COLUMN user_id RESTART WITH " + (dataset.users() + 1));
+    }
+
+    public void loadLikes(JdbcTemplate jdbcTemplate, Dataset dataset) {
+        loadPairs(jdbcTemplate, "INSERT INTO likes (film_id, user_id) VALUES (?, ?)", dataset);
+        jdbcTemplate.update("UPDATE films f SET likes_count = " +
+                "(SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id)");
+    }
+
+    public void loadFriendships(JdbcTemplate jdbcTemplate, Dataset dataset) {
+        loadPairs(jdbcTemplate, "INSERT INTO friendships (friend_id, user_id) VALUES (?, ?)", dataset);
+    }
+
+    public void loadInto(FilmStorage filmStorage, Dataset dataset) {
+        for (long filmId = 1; filmId <= dataset.films(); filmId++) {
+            Film film = new Film();
+            film.setName("Film " + filmId);
+            film.setDescription("Description of film " + filmId);
+            film.setReleaseDate(releaseDate(filmId));
+            film.setDuration((int) (90 + filmId % 60));
+            film.setMpaRating(new MpaRating(1 + filmId % MPA_RATINGS, null));
+            filmStorage.addFilm(film);
+        }
+        for (int i = 0; i < dataset.size(); i++) {
+            filmStorage.addLike(dataset.targetIds()[i], dataset.userIds()[i]);
+        }
+    }
+
+    private void loadPairs(JdbcTemplate jdbcTemplate, String sql, Dataset dataset) {
+        List<Object[]> pairs = new ArrayList<>(BATCH_SIZE);
+
+        for (int i = 0; i < dataset.size(); i++) {
+            pairs.add(new Object[]{dataset.targetIds()[i], dataset.userIds()[i]});
+            if (pairs.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(sql, pairs);
+                pairs.clear();
+            }
+        }
+        jdbcTemplate.batchUpdate(sql, pairs);
+    }
+
+    private LocalDate releaseDate(long filmId) {
+        return LocalDate.of(1950 + (int) (filmId % 75), 1 + (int) (filmId % 12), 1);
+    }
+
+    public enum Distribution {
+        UNIFORM,
+        SKEWED
+    }
+
+    public record Dataset(int films, int users, long[] targetIds, long[] userIds) {
+        public int size() {
+            return targetIds.length;
+        }
+    }
+
+    private class Sampler {
+        // Для skewed — распределение Ципфа с s = 1.1: небольшая часть id собирает большую часть связей
+        private static final double ZIPF_EXPONENT = 1.1;
+
+        private final int size;
+        private final double[] cumulative;
+
+        Sampler(int size, Distribution distribution) {
+            this.size = size;
+            this.cumulative = distribution == Distribution.SKEWED ? zipf(size) : null;
+        }
+
+        long next() {
+            if (cumulative == null) {
+                return 1 + random.nextInt(size);
+            }
+
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[size - 1]);
+            return 1 + (index >= 0 ? index : -index - 1);
+        }
+
+        private double[] zipf(int size) {
+            double[] weights = new double[size];
+            double sum = 0;
+            for (int i = 0; i < size; i++) {
+                sum += 1 / Math.pow(i + 1, ZIPF_EXPONENT);
+                weights[i] = sum;
+            }
+            return weights;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.benchmark.BenchmarkContext.Engine;
+import ru.yandex.practicum.filmorate.benchmark.BenchmarkDataGenerator.Dataset;
+import ru.yandex.practicum.filmorate.benchmark.BenchmarkDataGenerator.Distribution;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.LikeIndexFilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.PopularFilmStorage;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilmStorageBenchmark {
+    private static final int LIKES_PER_USER = 20;
+
+    @Param({"filmDbStorage", "popularFilmStorage", "likeIndexFilmStorage", "inMemoryFilmStorage"})
+    public String storage;
+
+    @Param({"10000", "100000", "1000000"})
+    public int films;
+
+    @Param({"UNIFORM", "SKEWED"})
+    public Distribution likeDistribution;
+
+    @Param({"H2"})
+    public Engine engine;
+
+    private ConfigurableApplicationContext context;
+    private FilmStorage filmStorage;
+    private int users;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(engine);
+        users = Math.max(1000, films / 10);
+
+        BenchmarkDataGenerator generator = new BenchmarkDataGenerator(42);
+        Dataset dataset = generator.generateLikes(films, users, LIKES_PER_USER, likeDistribution);
+        filmStorage = context.getBean(storage, FilmStorage.class);
+
+        if (storage.startsWith("inMemory")) {
+            generator.loadInto(filmStorage, dataset);
+            return;
+        }
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        generator.loadFilms(jdbcTemplate, dataset);
+        generator.loadUsers(jdbcTemplate, dataset);
+        generator.loadLikes(jdbcTemplate, dataset);
+        context.getBean(PopularFilmStorage.class).loadRanking();
+        context.getBean(LikeIndexFilmStorage.class).loadIndex();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Film> getPopularFilms() {
+        return filmStorage.getPopularFilms(10);
+    }
+
+    @Benchmark
+    public Film getFilmById() {
+        return filmStorage.getFilmById(1 + ThreadLocalRandom.current().nextInt(films));
+    }
+
+    @Benchmark
+    public boolean addLike() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return filmStorage.addLike(1 + random.nextInt(films), 1 + random.nextInt(users));
+    }
+
+    @Benchmark
+    public List<Film> getRecommendedFilms() {
+        return filmStorage.getRecommendedFilms(1 + ThreadLocalRandom.current().nextInt(users), 10);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public List<Film> getAllFilms() {
+        return filmStorage.getAllFilms();
+    }
+}
@@ -0,0 +1,83 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.benchmark.BenchmarkDataGenerator.Dataset;
+import ru.yandex.practicum.filmorate.benchmark.BenchmarkDataGenerator.Distribution;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Нагрузочный тест через HTTP: сравнивает пропускную способность и перцентили задержки
+// пула платформенных потоков Tomcat и виртуальных потоков с семафором перед пулом соединений
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(256)
+@Fork(1)
+public class HttpLoadBenchmark {
+    private static final int LIKES_PER_USER = 20;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"50"})
+    public int tomcatThreads;
+
+    @Param({"10000"})
+    public int films;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.startWeb(
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "server.tomcat.threads.max=" + tomcatThreads);
+
+        BenchmarkDataGenerator generator = new BenchmarkDataGenerator(42);
+        Dataset dataset = generator.generateLikes(films, Math.max(1000, films / 10), LIKES_PER_USER,
+                Distribution.UNIFORM);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        generator.loadFilms(jdbcTemplate, dataset);
+        generator.loadUsers(jdbcTemplate, dataset);
+        generator.loadLikes(jdbcTemplate, dataset);
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port;
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Страница фильмов не кэшируется и каждый раз выполняет три запроса к базе
+    @Benchmark
+    public int getFilmsPage() throws IOException, InterruptedException {
+        long after = ThreadLocalRandom.current().nextInt(films - PAGE_SIZE);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/films?after=" + after + "&limit=" + PAGE_SIZE))
+                .GET()
+                .build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Неожиданный статус ответа: " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,110 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.benchmark.BenchmarkContext.Engine;
+import ru.yandex.practicum.filmorate.benchmark.BenchmarkDataGenerator.Dataset;
+import ru.yandex.practicum.filmorate.benchmark.BenchmarkDataGenerator.Distribution;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Запросы по второму столбцу likes, friendships и film_genres с обратными индексами и без них.
+// На 1 000 000 пользователей в likes и friendships по 10 000 000 строк
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReverseLookupBenchmark {
+    private static final int LIKES_PER_USER = 10;
+    private static final int FRIENDS_PER_USER = 10;
+    private static final int GENRES = 6;
+
+    @Param({"true", "false"})
+    public boolean reverseIndexes;
+
+    @Param({"10000", "1000000"})
+    public int users;
+
+    @Param({"UNIFORM", "SKEWED"})
+    public Distribution distribution;
+
+    @Param({"H2"})
+    public Engine engine;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private FilmStorage filmStorage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(engine);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        filmStorage = context.getBean("filmDbStorage", FilmStorage.class);
+
+        if (!reverseIndexes) {
+            jdbcTemplate.execute("DROP INDEX idx_likes_user_film");
+            jdbcTemplate.execute("DROP INDEX idx_friendships_friend_user");
+            jdbcTemplate.execute("DROP INDEX idx_film_genres_genre_film");
+        }
+
+        BenchmarkDataGenerator generator = new BenchmarkDataGenerator(42);
+        Dataset likes = generator.generateLikes(Math.max(1000, users / 10), users, LIKES_PER_USER, distribution);
+        Dataset friendships = generator.generateFriendships(users, FRIENDS_PER_USER, distribution);
+        generator.loadFilms(jdbcTemplate, likes);
+        generator.loadUsers(jdbcTemplate, likes);
+        generator.loadLikes(jdbcTemplate, likes);
+        generator.loadFriendships(jdbcTemplate, friendships);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Long> likedFilmsOfUser() {
+        return jdbcTemplate.queryForList("SELECT film_id FROM likes WHERE user_id = ?", Long.class, randomUser());
+    }
+
+    @Benchmark
+    public List<Long> incomingFriendships() {
+        return jdbcTemplate.queryForList("SELECT user_id FROM friendships WHERE friend_id = ?", Long.class,
+                randomUser());
+    }
+
+    @Benchmark
+    public List<Film> getRecommendedFilms() {
+        return filmStorage.getRecommendedFilms(randomUser(), 10);
+    }
+
+    @Benchmark
+    public List<Film> getPopularFilmsByGenre() {
+        return filmStorage.getPopularFilms(10, 1L + ThreadLocalRandom.current().nextInt(GENRES), null, null);
+    }
+
+    // Каскадное удаление ищет строки пользователя по user_id в likes и по friend_id в friendships;
+    // транзакция откатывается, чтобы данные не менялись между вызовами
+    @Benchmark
+    public Integer deleteUserCascade() {
+        return transactionTemplate.execute(status -> {
+            int deleted = jdbcTemplate.update("DELETE FROM users WHERE user_id = ?", randomUser());
+            status.setRollbackOnly();
+            return deleted;
+        });
+    }
+
+    private long randomUser() {
+        return 1 + ThreadLocalRandom.current().nextInt(users);
+    }
+}
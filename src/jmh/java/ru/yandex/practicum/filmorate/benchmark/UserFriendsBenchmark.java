@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.benchmark.BenchmarkContext.Engine;
+import ru.yandex.practicum.filmorate.benchmark.BenchmarkDataGenerator.Dataset;
+import ru.yandex.practicum.filmorate.benchmark.BenchmarkDataGenerator.Distribution;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.FriendGraphUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserFriendsBenchmark {
+    @Param({"userDbStorage", "friendGraphUserStorage"})
+    public String storage;
+
+    @Param({"10000", "100000"})
+    public int users;
+
+    @Param({"50"})
+    public int friendsPerUser;
+
+    @Param({"UNIFORM", "SKEWED"})
+    public Distribution friendDistribution;
+
+    @Param({"H2"})
+    public Engine engine;
+
+    private ConfigurableApplicationContext context;
+    private UserStorage userStorage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(engine);
+
+        BenchmarkDataGenerator generator = new BenchmarkDataGenerator(42);
+        Dataset dataset = generator.generateFriendships(users, friendsPerUser, friendDistribution);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        generator.loadUsers(jdbcTemplate, dataset);
+        generator.loadFriendships(jdbcTemplate, dataset);
+        context.getBean(FriendGraphUserStorage.class).loadGraph();
+
+        userStorage = context.getBean(storage, UserStorage.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Set<User> getFriends() {
+        return userStorage.getFriends(1 + ThreadLocalRandom.current().nextInt(users));
+    }
+
+    @Benchmark
+    public Set<User> getCommonFriends() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return userStorage.getCommonFriends(1 + random.nextInt(users), 1 + random.nextInt(users));
+    }
+}
@@ -2,6 +2,7 @@ package ru.yandex.practicum.filmorate;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -28,6 +29,13 @@ public class ErrorHandler {
         return new ErrorResponse("Не найдено", e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleCannotGetJdbcConnectionException(CannotGetJdbcConnectionException e) {
+        log.error("Нет свободного соединения с базой: {}", e.getMessage(), e);
+        return new ErrorResponse("Сервис перегружен", e.getMessage());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleGeneralException(Exception e) {
@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.controller;
+
+// Версии фильмов и пользователей хранятся в базе. Версии каталога и справочников живут в памяти
+// и после перезапуска начинаются заново, поэтому в их ETag входит время запуска
+final class ETags {
+    private static final String STARTED_AT = Long.toString(System.currentTimeMillis(), 36);
+
+    private ETags() {
+    }
+
+    static String entity(String kind, long id, long version) {
+        return version > 0 ? "\"" + kind + "-" + id + "-" + version + "\"" : null;
+    }
+
+    static String inMemory(String kind, long version) {
+        return "\"" + kind + "-" + STARTED_AT + "-" + version + "\"";
+    }
+}
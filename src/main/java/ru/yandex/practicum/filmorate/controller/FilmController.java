@@ -1,15 +1,28 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmImportResult;
+import ru.yandex.practicum.filmorate.model.MultiGetResult;
+import ru.yandex.practicum.filmorate.service.FilmImportService;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Validated
 @Slf4j
@@ -17,21 +30,75 @@ import java.util.List;
 @RequiredArgsConstructor
 @RequestMapping("/films")
 public class FilmController {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
     private final FilmService filmService;
+    private final FilmImportService filmImportService;
+    private final ObjectMapper objectMapper;
+    private final JsonResponseCache responseCache;
 
     @GetMapping
-    public List<Film> getFilms() {
-        return filmService.getFilms();
+    public List<Film> getFilms(@RequestParam(required = false) Long after,
+                               @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return filmService.getFilms();
+        }
+        return filmService.getFilmsPage(after == null ? 0 : after, limit == null ? DEFAULT_PAGE_SIZE : limit);
+    }
+
+    @GetMapping(params = "ids")
+    public MultiGetResult<Film> getFilmsByIds(@RequestParam List<Long> ids) {
+        return filmService.getFilmsByIds(ids);
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody exportFilms() {
+        ObjectWriter writer = objectMapper.writer();
+        return outputStream -> filmService.streamFilms(film -> {
+            try {
+                outputStream.write(writer.writeValueAsBytes(film));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // Если ETag совпал с If-None-Match, Spring отвечает 304 без тела
     @GetMapping("/{id}")
-    public Film getFilm(@PathVariable long id) {
-        return filmService.getFilmById(id);
+    public ResponseEntity<Film> getFilm(@PathVariable long id) {
+        return withETag(filmService.getFilmById(id));
+    }
+
+    // Неблокирующий вариант для клиентов, которые запрашивают много фильмов параллельно:
+    // запросы, пришедшие в одном окне filmorate.batch.window, загружаются одним пакетом
+    @GetMapping("/{id}/batched")
+    public CompletableFuture<ResponseEntity<Film>> getFilmBatched(@PathVariable long id) {
+        return filmService.getFilmByIdAsync(id).thenApply(this::withETag);
+    }
+
+    @GetMapping("/search")
+    public List<Film> searchFilms(@RequestParam String query,
+                                  @RequestParam(defaultValue = "title,description") List<String> by,
+                                  @RequestParam(defaultValue = "100") int limit) {
+        return filmService.searchFilms(query, by, limit);
     }
 
     @GetMapping("/popular")
-    public List<Film> getPopularFilms(@RequestParam(defaultValue = "10") int count) {
-        return filmService.getPopularFilms(count);
+    public ResponseEntity<byte[]> getPopularFilms(@RequestParam(defaultValue = "10") int count,
+                                                  @RequestParam(required = false) Long genreId,
+                                                  @RequestParam(required = false) Long mpaId,
+                                                  @RequestParam(required = false) Integer year,
+                                                  WebRequest request) {
+        // Версия читается до списка: если каталог изменится в процессе, клиент просто получит 200 ещё раз
+        long version = filmService.getCatalogVersion();
+        if (request.checkNotModified(ETags.inMemory("catalog", version))) {
+            return null;
+        }
+        // Ключ строится по уже ограниченному count, чтобы запросы сверх предела делили одну запись
+        int limitedCount = filmService.limitPopularCount(count);
+        return responseCache.get("popular:" + limitedCount + ":" + genreId + ":" + mpaId + ":" + year, version,
+                () -> filmService.getPopularFilms(limitedCount, genreId, mpaId, year), request);
     }
 
     @PostMapping
@@ -40,6 +107,11 @@ public class FilmController {
         return filmService.addFilm(film);
     }
 
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public FilmImportResult addFilms(InputStream body) throws IOException {
+        return filmImportService.importFilms(body);
+    }
+
     @PutMapping
     @ResponseStatus(HttpStatus.OK)
     public Film updateFilm(@Valid @RequestBody Film newFilm) {
@@ -60,4 +132,10 @@ public class FilmController {
     public void deleteLike(@PathVariable Long id, @PathVariable Long userId) {
         filmService.deleteLike(id, userId);
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<Film> withETag(Film film) {
+        return ResponseEntity.ok()
+                .eTag(ETags.entity("film", film.getId(), film.getVersion()))
+                .body(film);
+    }
+}
@@ -2,28 +2,37 @@ package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.service.GenreService;
 
-import java.util.List;
-
 @Slf4j
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/genres")
 public class GenreController {
     private final GenreService genreService;
+    private final JsonResponseCache responseCache;
 
     @GetMapping
-    public List<Genre> getAllGenres() {
+    public ResponseEntity<byte[]> getAllGenres(WebRequest request) {
         log.info("Получен запрос GET /genres для получения списка всех жанров.");
-        return genreService.getAllGenres();
+        long version = genreService.getVersion();
+        if (request.checkNotModified(ETags.inMemory("reference", version))) {
+            return null;
+        }
+        return responseCache.get("genres", version, genreService::getAllGenres, request);
     }
 
     @GetMapping("/{id}")
-    public Genre getGenreById(@PathVariable long id) {
+    public Genre getGenreById(@PathVariable long id, WebRequest request) {
         log.info("Получен запрос GET /genres/{} для получения жанра по ID.", id);
-        return genreService.getGenreById(id);
+        Genre genre = genreService.getGenreById(id);
+        if (request.checkNotModified(ETags.inMemory("reference", genreService.getVersion()))) {
+            return null;
+        }
+        return genre;
     }
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+// Хранит готовые байты JSON горячих ответов, чтобы не сериализовать одно и то же на каждый запрос.
+// Запись годна, пока не изменилась версия данных, из которых она собрана
+@Component
+public class JsonResponseCache {
+    private final ObjectMapper objectMapper;
+    private final int gzipMinSize;
+    private final Cache<String, Entry> responses;
+
+    @Autowired
+    public JsonResponseCache(ObjectMapper objectMapper,
+                             @Value("${filmorate.response-cache.max-weight:67108864}") long maxWeight,
+                             @Value("${filmorate.response-cache.gzip-min-size:1024}") int gzipMinSize) {
+        this.objectMapper = objectMapper;
+        this.gzipMinSize = gzipMinSize;
+        this.responses = Caffeine.newBuilder()
+                // Ответы сильно различаются по размеру, поэтому кэш ограничен суммарным объёмом байтов
+                .maximumWeight(maxWeight)
+                .weigher((String key, Entry entry) -> entry.weight())
+                .recordStats()
+                .build();
+    }
+
+    public Cache<String, Entry> getCache() {
+        return responses;
+    }
+
+    // Версию нужно прочитать до загрузки данных: если они изменятся в процессе,
+    // запись получит старую версию и будет пересобрана при следующем запросе
+    public ResponseEntity<byte[]> get(String key, long version, Supplier<?> loader, WebRequest request) {
+        Entry entry = responses.getIfPresent(key);
+        if (entry == null || entry.version() != version) {
+            entry = serialize(version, loader.get());
+            responses.put(key, entry);
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (entry.gzip() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(entry.gzip());
+        }
+        return response.body(entry.json());
+    }
+
+    private Entry serialize(long version, Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            return new Entry(version, json, json.length >= gzipMinSize ? gzip(json) : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать ответ", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").equals("q=0");
+            }
+        }
+        return false;
+    }
+
+    public record Entry(long version, byte[] json, byte[] gzip) {
+
+        int weight() {
+            return json.length + (gzip == null ? 0 : gzip.length);
+        }
+    }
+}
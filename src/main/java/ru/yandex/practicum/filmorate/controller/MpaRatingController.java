@@ -2,13 +2,13 @@ package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.yandex.practicum.filmorate.model.MpaRating;
 import ru.yandex.practicum.filmorate.service.MpaRatingService;
 
-import java.util.List;
-
 @Slf4j
 @Validated
 @RestController
@@ -17,16 +17,25 @@ import java.util.List;
 public class MpaRatingController {
 
     private final MpaRatingService mpaRatingService;
+    private final JsonResponseCache responseCache;
 
     @GetMapping
-    public List<MpaRating> getAllMpaRatings() {
+    public ResponseEntity<byte[]> getAllMpaRatings(WebRequest request) {
         log.info("Запрос на получение всех MPA рейтингов");
-        return mpaRatingService.getAllMpaRatings();
+        long version = mpaRatingService.getVersion();
+        if (request.checkNotModified(ETags.inMemory("reference", version))) {
+            return null;
+        }
+        return responseCache.get("mpa", version, mpaRatingService::getAllMpaRatings, request);
     }
 
     @GetMapping("/{id}")
-    public MpaRating getMpaRatingById(@PathVariable long id) {
+    public MpaRating getMpaRatingById(@PathVariable long id, WebRequest request) {
         log.info("Запрос на получение MPA рейтинга с id {}", id);
-        return mpaRatingService.getMpaRatingById(id);
+        MpaRating mpaRating = mpaRatingService.getMpaRatingById(id);
+        if (request.checkNotModified(ETags.inMemory("reference", mpaRatingService.getVersion()))) {
+            return null;
+        }
+        return mpaRating;
     }
 }
\ No newline at end of file
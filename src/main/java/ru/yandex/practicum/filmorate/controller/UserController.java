@@ -1,16 +1,27 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MultiGetResult;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Validated
 @Slf4j
@@ -18,16 +29,45 @@ import java.util.Set;
 @RequiredArgsConstructor
 @RequestMapping("/users")
 public class UserController {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
     private final UserService userService;
+    private final FilmService filmService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    public List<User> getUsers() {
-        return userService.getAllUsers();
+    public List<User> getUsers(@RequestParam(required = false) Long after,
+                               @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return userService.getAllUsers();
+        }
+        return userService.getUsersPage(after == null ? 0 : after, limit == null ? DEFAULT_PAGE_SIZE : limit);
+    }
+
+    @GetMapping(params = "ids")
+    public MultiGetResult<User> getUsersByIds(@RequestParam List<Long> ids) {
+        return userService.getUsersByIds(ids);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody exportUsers() {
+        ObjectWriter writer = objectMapper.writer();
+        return outputStream -> userService.streamUsers(user -> {
+            try {
+                outputStream.write(writer.writeValueAsBytes(user));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
     }
 
     @GetMapping("/{id}")
-    public User getUser(@PathVariable long id) {
-        return userService.getUser(id);
+    public ResponseEntity<User> getUser(@PathVariable long id) {
+        User user = userService.getUser(id);
+        return ResponseEntity.ok()
+                .eTag(ETags.entity("user", user.getId(), user.getVersion()))
+                .body(user);
     }
 
     @GetMapping("/{id}/friends")
@@ -35,11 +75,29 @@ public class UserController {
         return userService.getFriends(id);
     }
 
+    // Неблокирующий вариант: запросы друзей, пришедшие в одном окне, загружаются одним пакетом
+    @GetMapping("/{id}/friends/batched")
+    public CompletableFuture<Set<User>> getFriendsBatched(@PathVariable long id) {
+        return userService.getFriendsAsync(id);
+    }
+
     @GetMapping("/{id}/friends/common/{otherId}")
     public Set<User> getCommonFriends(@PathVariable long id, @PathVariable long otherId) {
         return userService.getCommonFriends(id, otherId);
     }
 
+    @GetMapping("/{id}/friends/recommendations")
+    public List<User> getFriendRecommendations(@PathVariable long id,
+                                               @RequestParam(defaultValue = "10") int limit) {
+        return userService.getFriendRecommendations(id, limit);
+    }
+
+    @GetMapping("/{id}/recommendations")
+    public List<Film> getRecommendedFilms(@PathVariable long id,
+                                          @RequestParam(defaultValue = "10") int limit) {
+        return filmService.getRecommendedFilms(id, limit);
+    }
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public User addUser(@Valid @RequestBody User user) {
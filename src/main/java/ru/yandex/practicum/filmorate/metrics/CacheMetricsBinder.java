@@ -0,0 +1,25 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.controller.JsonResponseCache;
+import ru.yandex.practicum.filmorate.storage.film.CachingFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.CachingUserStorage;
+
+@Component
+@RequiredArgsConstructor
+public class CacheMetricsBinder implements MeterBinder {
+    private final CachingFilmStorage cachingFilmStorage;
+    private final CachingUserStorage cachingUserStorage;
+    private final JsonResponseCache jsonResponseCache;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cachingFilmStorage.getCache(), "films");
+        CaffeineCacheMetrics.monitor(registry, cachingUserStorage.getCache(), "users");
+        CaffeineCacheMetrics.monitor(registry, jsonResponseCache.getCache(), "responses");
+    }
+}
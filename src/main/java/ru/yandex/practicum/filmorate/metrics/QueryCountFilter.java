@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Component
+public class QueryCountFilter extends OncePerRequestFilter {
+    static final String METRIC_NAME = "filmorate.http.queries";
+    private static final String COUNTER_ATTRIBUTE = QueryCountFilter.class.getName() + ".COUNTER";
+
+    private final QueryCounter queryCounter;
+    private final MeterRegistry meterRegistry;
+    private final int warnThreshold;
+
+    @Autowired
+    public QueryCountFilter(QueryCounter queryCounter,
+                            MeterRegistry meterRegistry,
+                            @Value("${filmorate.metrics.query-warn-threshold:20}") int warnThreshold) {
+        this.queryCounter = queryCounter;
+        this.meterRegistry = meterRegistry;
+        this.warnThreshold = warnThreshold;
+    }
+
+    // Асинхронный запрос завершается во втором проходе фильтра, тогда и записывается метрика
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AtomicInteger counter = isAsyncDispatch(request) ? (AtomicInteger) request.getAttribute(COUNTER_ATTRIBUTE) : null;
+        if (counter == null) {
+            counter = new AtomicInteger();
+        }
+
+        queryCounter.bind(counter);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            queryCounter.clear();
+            if (isAsyncStarted(request)) {
+                request.setAttribute(COUNTER_ATTRIBUTE, counter);
+            } else {
+                record(request, counter.get());
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, int queries) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        DistributionSummary.builder(METRIC_NAME)
+                .description("Количество SQL-запросов на один HTTP-запрос")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .serviceLevelObjectives(1, 2, 5, 10, 20, 50, 100)
+                .register(meterRegistry)
+                .record(queries);
+        if (queries > warnThreshold) {
+            log.warn("Запрос {} {} выполнил {} SQL-запросов", request.getMethod(), uri, queries);
+        }
+    }
+}
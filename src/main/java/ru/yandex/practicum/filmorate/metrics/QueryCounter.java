@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Счётчик привязан к потоку, но может быть передан в другой поток: асинхронный ответ дописывает запросы
+// в счётчик исходного HTTP-запроса, а пакетная загрузка — в счётчики всех запросов, ради которых она идёт
+@Component
+public class QueryCounter {
+    private final ThreadLocal<Collection<AtomicInteger>> counters = new ThreadLocal<>();
+
+    public void bind(AtomicInteger counter) {
+        counters.set(List.of(counter));
+    }
+
+    public void clear() {
+        counters.remove();
+    }
+
+    public void increment() {
+        Collection<AtomicInteger> current = counters.get();
+        if (current != null) {
+            current.forEach(AtomicInteger::incrementAndGet);
+        }
+    }
+
+    public Collection<AtomicInteger> capture() {
+        Collection<AtomicInteger> current = counters.get();
+        return current == null ? List.of() : current;
+    }
+
+    public void runWith(Collection<AtomicInteger> captured, Runnable action) {
+        Collection<AtomicInteger> previous = counters.get();
+        counters.set(captured);
+        try {
+            action.run();
+        } finally {
+            if (previous == null) {
+                counters.remove();
+            } else {
+                counters.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.springframework.stereotype.Component;
+
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class QueryCountingAspect {
+    private final QueryCounter queryCounter;
+
+    // Внутренние вызовы JdbcTemplate не проходят через прокси, поэтому один вызов хранилища = одно обращение к БД
+    @Before("execution(* org.springframework.jdbc.core.JdbcOperations.*(..))")
+    public void count() {
+        queryCounter.increment();
+    }
+}
@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class StorageMetricsAspect {
+    static final String METRIC_NAME = "filmorate.storage";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, Timer> successTimers = new ConcurrentHashMap<>();
+    private final Map<Method, Timer> errorTimers = new ConcurrentHashMap<>();
+
+    // Замеряются только хранилища, которые ходят в базу: декораторы над ними дали бы по таймеру на каждый слой
+    @Around("execution(* ru.yandex.practicum.filmorate.storage..*DbStorage.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Timer timer = successTimers.computeIfAbsent(method, m -> createTimer(joinPoint, m, "success"));
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            errorTimers.computeIfAbsent(method, m -> createTimer(joinPoint, m, "error"))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer createTimer(ProceedingJoinPoint joinPoint, Method method, String outcome) {
+        return Timer.builder(METRIC_NAME)
+                .description("Время выполнения методов хранилищ")
+                .tag("storage", ClassUtils.getUserClass(joinPoint.getTarget().getClass()).getSimpleName())
+                .tag("method", method.getName())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
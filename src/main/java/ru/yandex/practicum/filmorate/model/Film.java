@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -33,4 +34,8 @@ public class Film {
     @JsonProperty("mpa")
     private MpaRating mpaRating;
     private Set<Genre> genres = new HashSet<>();
+
+    // Версия из базы для ETag, 0 — версия неизвестна
+    @JsonIgnore
+    private long version;
 }
\ No newline at end of file
@@ -0,0 +1,6 @@
+package ru.yandex.practicum.filmorate.model;
+
+import java.util.List;
+
+public record FilmImportResult(int received, int imported, int failed, List<FilmImportError> errors) {
+}
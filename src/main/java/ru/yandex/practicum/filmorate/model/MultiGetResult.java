@@ -0,0 +1,25 @@
+package ru.yandex.practicum.filmorate.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+public record MultiGetResult<T>(List<T> items, List<Long> missingIds) {
+
+    // items уже идут в порядке запроса, не найденные id перечисляются в том же порядке
+    public static <T> MultiGetResult<T> of(Collection<Long> requestedIds, List<T> items, ToLongFunction<T> idOf) {
+        Set<Long> foundIds = new HashSet<>();
+        items.forEach(item -> foundIds.add(idOf.applyAsLong(item)));
+
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requestedIds) {
+            if (!foundIds.contains(id)) {
+                missingIds.add(id);
+            }
+        }
+        return new MultiGetResult<>(items, missingIds);
+    }
+}
@@ -0,0 +1,136 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.metrics.QueryCounter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+// Собирает запросы по id, пришедшие в течение окна, и выполняет их одной пакетной загрузкой.
+// Одинаковые id внутри окна получают общий результат
+@Slf4j
+public class BatchLoader<V> implements AutoCloseable {
+    private final String name;
+    private final Function<List<Long>, Map<Long, V>> batchFunction;
+    private final LongFunction<RuntimeException> notFound;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final QueryCounter queryCounter;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private Batch<V> pending = new Batch<>();
+    // Поток таймера создаётся при первой загрузке: пакетный API нужен не всем клиентам
+    private ScheduledExecutorService timer;
+
+    public BatchLoader(String name,
+                       Function<List<Long>, Map<Long, V>> batchFunction,
+                       LongFunction<RuntimeException> notFound,
+                       Duration window,
+                       int maxBatchSize,
+                       QueryCounter queryCounter) {
+        this.name = name;
+        this.batchFunction = batchFunction;
+        this.notFound = notFound;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.queryCounter = queryCounter;
+    }
+
+    public CompletableFuture<V> load(long id) {
+        Batch<V> full = null;
+        CompletableFuture<V> future;
+        synchronized (this) {
+            boolean first = pending.futures.isEmpty();
+            future = pending.futures.computeIfAbsent(id, key -> new CompletableFuture<>());
+            pending.counters.addAll(queryCounter.capture());
+            if (pending.futures.size() >= maxBatchSize) {
+                full = takePending();
+            } else if (first) {
+                timer().schedule(this::dispatch, window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+
+        if (full != null) {
+            submit(full);
+        }
+        return future;
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (timer != null) {
+                timer.shutdownNow();
+            }
+        }
+        executor.close();
+    }
+
+    private ScheduledExecutorService timer() {
+        if (timer == null) {
+            timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name + "-batch-loader");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return timer;
+    }
+
+    private void dispatch() {
+        Batch<V> batch;
+        synchronized (this) {
+            batch = takePending();
+        }
+        if (!batch.futures.isEmpty()) {
+            submit(batch);
+        }
+    }
+
+    private Batch<V> takePending() {
+        Batch<V> batch = pending;
+        pending = new Batch<>();
+        return batch;
+    }
+
+    // Запросы пакета засчитываются каждому HTTP-запросу, который его ждёт
+    private void submit(Batch<V> batch) {
+        executor.execute(() -> queryCounter.runWith(batch.counters, () -> complete(batch.futures)));
+    }
+
+    private void complete(Map<Long, CompletableFuture<V>> batch) {
+        try {
+            Map<Long, V> values = batchFunction.apply(new ArrayList<>(batch.keySet()));
+            batch.forEach((id, future) -> {
+                V value = values.get(id);
+                if (value == null) {
+                    future.completeExceptionally(notFound.apply(id));
+                } else {
+                    future.complete(value);
+                }
+            });
+            log.debug("Пакетная загрузка {}: {} id", name, batch.size());
+        } catch (RuntimeException e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private static final class Batch<V> {
+        private final Map<Long, CompletableFuture<V>> futures = new HashMap<>();
+        // Счётчики SQL-запросов вызывающих потоков, сравниваются по ссылке
+        private final Set<AtomicInteger> counters = new HashSet<>();
+    }
+}
@@ -0,0 +1,143 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmImportError;
+import ru.yandex.practicum.filmorate.model.FilmImportResult;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.reference.ReferenceDataRegistry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class FilmImportService {
+    private final FilmStorage filmStorage;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+
+    @Autowired
+    public FilmImportService(@Qualifier("likeIndexFilmStorage") FilmStorage filmStorage,
+                             ReferenceDataRegistry referenceDataRegistry,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             @Value("${filmorate.bulk.chunk-size:1000}") int chunkSize) {
+        this.filmStorage = filmStorage;
+        this.referenceDataRegistry = referenceDataRegistry;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    public FilmImportResult importFilms(InputStream body) throws IOException {
+        List<FilmImportError> errors = new ArrayList<>();
+        List<Film> chunk = new ArrayList<>(chunkSize);
+        List<Integer> chunkIndexes = new ArrayList<>(chunkSize);
+        int received = 0;
+        int imported = 0;
+
+        try (MappingIterator<Film> films = objectMapper.readerFor(Film.class).readValues(body)) {
+            while (true) {
+                Film film;
+                try {
+                    if (!films.hasNextValue()) {
+                        break;
+                    }
+                    film = films.nextValue();
+                } catch (JsonParseException e) {
+                    errors.add(new FilmImportError(received++, "Некорректный JSON: " + e.getOriginalMessage()));
+                    break;
+                } catch (JsonMappingException e) {
+                    errors.add(new FilmImportError(received++, "Некорректный фильм: " + e.getOriginalMessage()));
+                    continue;
+                }
+
+                String error = validate(film);
+                if (error != null) {
+                    errors.add(new FilmImportError(received++, error));
+                    continue;
+                }
+
+                chunk.add(film);
+                chunkIndexes.add(received++);
+
+                if (chunk.size() == chunkSize) {
+                    imported += flush(chunk, chunkIndexes, errors);
+                }
+            }
+        }
+
+        imported += flush(chunk, chunkIndexes, errors);
+        log.info("Импорт фильмов завершен: получено {}, добавлено {}, с ошибками {}",
+                received, imported, errors.size());
+
+        return new FilmImportResult(received, imported, errors.size(), errors);
+    }
+
+    private int flush(List<Film> chunk, List<Integer> chunkIndexes, List<FilmImportError> errors) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+
+        int size = chunk.size();
+        try {
+            filmStorage.addFilms(new ArrayList<>(chunk));
+        } catch (RuntimeException e) {
+            log.error("Не удалось сохранить пакет фильмов: {}", e.getMessage(), e);
+            chunkIndexes.forEach(index -> errors.add(new FilmImportError(index, e.getMessage())));
+            size = 0;
+        } finally {
+            chunk.clear();
+            chunkIndexes.clear();
+        }
+
+        return size;
+    }
+
+    private String validate(Film film) {
+        Set<ConstraintViolation<Film>> violations = validator.validate(film);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+
+        if (film.getReleaseDate().isBefore(LocalDate.of(1895, 12, 28))) {
+            return "Дата релиза не может быть раньше 28 декабря 1895 года";
+        }
+
+        if (referenceDataRegistry.findMpaRating(film.getMpaRating().getId()) == null) {
+            return "Неверный MPA рейтинг.";
+        }
+
+        if (film.getGenres() != null) {
+            for (Genre genre : film.getGenres()) {
+                if (referenceDataRegistry.findGenre(genre.getId()) == null) {
+                    return "Жанр с id " + genre.getId() + " не найден.";
+                }
+            }
+        }
+
+        return null;
+    }
+}
@@ -1,20 +1,69 @@
 package ru.yandex.practicum.filmorate.service;
 
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.metrics.QueryCounter;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MultiGetResult;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.PopularFilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.SearchFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 public class FilmService {
     private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final PopularFilmStorage popularFilmStorage;
+    private final SearchFilmStorage searchFilmStorage;
+    private final BatchLoader<Film> filmLoader;
+    private final int multiGetMaxIds;
+    private final int pageMaxLimit;
+    private final int popularMaxCount;
+    private final int recommendationsMaxLimit;
+    private final int searchMaxLimit;
 
     @Autowired
-    public FilmService(@Qualifier("filmDbStorage") FilmStorage filmStorage) {
+    public FilmService(@Qualifier("likeIndexFilmStorage") FilmStorage filmStorage,
+                       @Qualifier("friendGraphUserStorage") UserStorage userStorage,
+                       PopularFilmStorage popularFilmStorage,
+                       SearchFilmStorage searchFilmStorage,
+                       QueryCounter queryCounter,
+                       @Value("${filmorate.batch.window:2ms}") Duration batchWindow,
+                       @Value("${filmorate.batch.max-size:500}") int batchMaxSize,
+                       @Value("${filmorate.multi-get.max-ids:1000}") int multiGetMaxIds,
+                       @Value("${filmorate.paging.max-limit:1000}") int pageMaxLimit,
+                       @Value("${filmorate.popular.max-count:1000}") int popularMaxCount,
+                       @Value("${filmorate.recommendations.max-limit:100}") int recommendationsMaxLimit,
+                       @Value("${filmorate.search.max-limit:1000}") int searchMaxLimit) {
         this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.popularFilmStorage = popularFilmStorage;
+        this.searchFilmStorage = searchFilmStorage;
+        this.multiGetMaxIds = multiGetMaxIds;
+        this.pageMaxLimit = pageMaxLimit;
+        this.popularMaxCount = popularMaxCount;
+        this.recommendationsMaxLimit = recommendationsMaxLimit;
+        this.searchMaxLimit = searchMaxLimit;
+        this.filmLoader = new BatchLoader<>("films", this::getFilmsById,
+                id -> new NotFoundException("Фильм с id " + id + " не найден"), batchWindow, batchMaxSize,
+                queryCounter);
+    }
+
+    @PreDestroy
+    public void close() {
+        filmLoader.close();
     }
 
     public Film addFilm(final Film film) {
@@ -29,10 +78,34 @@ public class FilmService {
         return filmStorage.getAllFilms();
     }
 
+    public List<Film> getFilmsPage(long afterId, int limit) {
+        if (limit <= 0 || limit > pageMaxLimit) {
+            throw new ValidationException("Размер страницы должен быть от 1 до " + pageMaxLimit);
+        }
+        return filmStorage.getFilmsPage(afterId, limit);
+    }
+
+    public void streamFilms(Consumer<Film> consumer) {
+        filmStorage.streamAllFilms(consumer);
+    }
+
     public Film getFilmById(long id) {
         return filmStorage.getFilmById(id);
     }
 
+    public MultiGetResult<Film> getFilmsByIds(List<Long> ids) {
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        if (distinctIds.isEmpty() || distinctIds.size() > multiGetMaxIds) {
+            throw new ValidationException("Количество id должно быть от 1 до " + multiGetMaxIds);
+        }
+        return MultiGetResult.of(distinctIds, filmStorage.getFilmsByIds(distinctIds), Film::getId);
+    }
+
+    // Одиночные запросы, пришедшие одновременно, объединяются в один getFilmsByIds
+    public CompletableFuture<Film> getFilmByIdAsync(long id) {
+        return filmLoader.load(id);
+    }
+
     public void deleteFilmById(long filmId) {
         filmStorage.deleteFilmById(filmId);
     }
@@ -45,7 +118,54 @@ public class FilmService {
         filmStorage.deleteLike(filmId, userId);
     }
 
+    public long getCatalogVersion() {
+        return popularFilmStorage.getCatalogVersion();
+    }
+
     public List<Film> getPopularFilms(int count) {
-        return filmStorage.getPopularFilms(count);
+        return getPopularFilms(count, null, null, null);
+    }
+
+    // Каждое значение count даёт отдельную запись в кэше ответов, поэтому оно ограничено сверху
+    public int limitPopularCount(int count) {
+        if (count <= 0) {
+            throw new ValidationException("Количество популярных фильмов должно быть положительным числом");
+        }
+        return Math.min(count, popularMaxCount);
+    }
+
+    public List<Film> getPopularFilms(int count, Long genreId, Long mpaId, Integer year) {
+        int limitedCount = limitPopularCount(count);
+        if (genreId == null && mpaId == null && year == null) {
+            return filmStorage.getPopularFilms(limitedCount);
+        }
+        return filmStorage.getPopularFilms(limitedCount, genreId, mpaId, year);
+    }
+
+    public List<Film> searchFilms(String query, List<String> by, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new ValidationException("Поисковый запрос не может быть пустым");
+        }
+        if (limit <= 0) {
+            throw new ValidationException("Количество результатов должно быть положительным числом");
+        }
+        if (by.isEmpty() || !List.of("title", "description").containsAll(by)) {
+            throw new ValidationException("Параметр by может содержать только title и description");
+        }
+        return searchFilmStorage.searchFilms(query, by.contains("title"), by.contains("description"),
+                Math.min(limit, searchMaxLimit));
+    }
+
+    public List<Film> getRecommendedFilms(long userId, int limit) {
+        if (limit <= 0) {
+            throw new ValidationException("Количество рекомендаций должно быть положительным числом");
+        }
+        userStorage.getUserById(userId);
+        return filmStorage.getRecommendedFilms(userId, Math.min(limit, recommendationsMaxLimit));
+    }
+
+    private Map<Long, Film> getFilmsById(List<Long> ids) {
+        return filmStorage.getFilmsByIds(ids).stream()
+                .collect(Collectors.toMap(Film::getId, film -> film));
     }
-}
\ No newline at end of file
+}
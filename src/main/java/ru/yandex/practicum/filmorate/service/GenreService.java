@@ -4,7 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.model.Genre;
-import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.reference.ReferenceDataRegistry;
 
 import java.util.List;
 
@@ -12,16 +12,20 @@ import java.util.List;
 @Service
 @RequiredArgsConstructor
 public class GenreService {
-    private final GenreStorage genreStorage;
+    private final ReferenceDataRegistry referenceDataRegistry;
+
+    public long getVersion() {
+        return referenceDataRegistry.getVersion();
+    }
 
     public List<Genre> getAllGenres() {
-        List<Genre> genres = genreStorage.getAllGenres();
+        List<Genre> genres = referenceDataRegistry.getAllGenres();
         log.info("Список жанров успешно получен. Количество: {}", genres.size());
         return genres;
     }
 
     public Genre getGenreById(long id) {
-        Genre genre = genreStorage.getGenreById(id);
+        Genre genre = referenceDataRegistry.getGenreById(id);
         log.info("Жанр с ID {} успешно найден: {}", id, genre.getName());
         return genre;
     }
@@ -4,7 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.model.MpaRating;
-import ru.yandex.practicum.filmorate.storage.MpaRating.MpaRatingDbStorage;
+import ru.yandex.practicum.filmorate.storage.reference.ReferenceDataRegistry;
 
 import java.util.List;
 
@@ -12,16 +12,20 @@ import java.util.List;
 @Service
 @RequiredArgsConstructor
 public class MpaRatingService {
-    private final MpaRatingDbStorage mpaRatingDbStorage;
+    private final ReferenceDataRegistry referenceDataRegistry;
+
+    public long getVersion() {
+        return referenceDataRegistry.getVersion();
+    }
 
      public MpaRating getMpaRatingById(long id) {
-        MpaRating mpaRating = mpaRatingDbStorage.getMpaRatingById(id);
+        MpaRating mpaRating = referenceDataRegistry.getMpaRatingById(id);
         log.info("Рейтинг с ID {} успешно найден: {}", id, mpaRating.getName());
         return mpaRating;
     }
 
     public List<MpaRating> getAllMpaRatings() {
         log.info("Запрос на получение всех MPA рейтингов");
-        return mpaRatingDbStorage.getAllMpaRatings();
+        return referenceDataRegistry.getAllMpaRatings();
     }
 }
\ No newline at end of file
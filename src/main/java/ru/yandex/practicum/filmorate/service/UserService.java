@@ -1,20 +1,47 @@
 package ru.yandex.practicum.filmorate.service;
 
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.metrics.QueryCounter;
+import ru.yandex.practicum.filmorate.model.MultiGetResult;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 @Service
 public class UserService {
     private final UserStorage userStorage;
+    private final BatchLoader<Set<User>> friendsLoader;
+    private final int multiGetMaxIds;
+    private final int pageMaxLimit;
 
     @Autowired
-    public UserService(@Qualifier("userDbStorage") UserStorage userStorage) {
+    public UserService(@Qualifier("friendGraphUserStorage") UserStorage userStorage,
+                       QueryCounter queryCounter,
+                       @Value("${filmorate.batch.window:2ms}") Duration batchWindow,
+                       @Value("${filmorate.batch.max-size:500}") int batchMaxSize,
+                       @Value("${filmorate.multi-get.max-ids:1000}") int multiGetMaxIds,
+                       @Value("${filmorate.paging.max-limit:1000}") int pageMaxLimit) {
         this.userStorage = userStorage;
+        this.multiGetMaxIds = multiGetMaxIds;
+        this.pageMaxLimit = pageMaxLimit;
+        this.friendsLoader = new BatchLoader<>("friends", userStorage::getFriendsByUserIds,
+                id -> new NotFoundException("Пользователь с id " + id + " не найден."), batchWindow, batchMaxSize,
+                queryCounter);
+    }
+
+    @PreDestroy
+    public void close() {
+        friendsLoader.close();
     }
 
     public User addUser(User user) {
@@ -29,10 +56,29 @@ public class UserService {
         return userStorage.getUserById(id);
     }
 
+    public MultiGetResult<User> getUsersByIds(List<Long> ids) {
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        if (distinctIds.isEmpty() || distinctIds.size() > multiGetMaxIds) {
+            throw new ValidationException("Количество id должно быть от 1 до " + multiGetMaxIds);
+        }
+        return MultiGetResult.of(distinctIds, userStorage.getUsersByIds(distinctIds), User::getId);
+    }
+
     public List<User> getAllUsers() {
         return userStorage.getAllUsers();
     }
 
+    public List<User> getUsersPage(long afterId, int limit) {
+        if (limit <= 0 || limit > pageMaxLimit) {
+            throw new ValidationException("Размер страницы должен быть от 1 до " + pageMaxLimit);
+        }
+        return userStorage.getUsersPage(afterId, limit);
+    }
+
+    public void streamUsers(Consumer<User> consumer) {
+        userStorage.streamAllUsers(consumer);
+    }
+
     public void deleteUserById(long userId) {
         userStorage.deleteUserById(userId);
     }
@@ -45,6 +91,11 @@ public class UserService {
         return userStorage.getFriends(id);
     }
 
+    // Одновременные запросы друзей разных пользователей объединяются в один getFriendsByUserIds
+    public CompletableFuture<Set<User>> getFriendsAsync(long id) {
+        return friendsLoader.load(id);
+    }
+
     public void confirmFriendship(long userId, long friendId) {
         userStorage.confirmFriendship(userId, friendId);
     }
@@ -56,4 +107,11 @@ public class UserService {
     public Set<User> getCommonFriends(long userId, long otherId) {
         return userStorage.getCommonFriends(userId, otherId);
     }
+
+    public List<User> getFriendRecommendations(long userId, int limit) {
+        if (limit <= 0) {
+            throw new ValidationException("Количество рекомендаций должно быть положительным числом");
+        }
+        return userStorage.getFriendRecommendations(userId, limit);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class AdjacencyCollector implements RowCallbackHandler {
+    private final String sourceColumn;
+    private final String targetColumn;
+    private final Map<Long, long[]> adjacency = new HashMap<>();
+    private long currentSource = -1;
+    private long[] targets = new long[16];
+    private int size;
+
+    // Строки должны приходить отсортированными по sourceColumn
+    public AdjacencyCollector(String sourceColumn, String targetColumn) {
+        this.sourceColumn = sourceColumn;
+        this.targetColumn = targetColumn;
+    }
+
+    @Override
+    public void processRow(ResultSet rs) throws SQLException {
+        long source = rs.getLong(sourceColumn);
+        if (source != currentSource) {
+            flush();
+            currentSource = source;
+        }
+        if (size == targets.length) {
+            targets = Arrays.copyOf(targets, size * 2);
+        }
+        targets[size++] = rs.getLong(targetColumn);
+    }
+
+    public Map<Long, long[]> finish() {
+        flush();
+        return adjacency;
+    }
+
+    private void flush() {
+        if (size > 0) {
+            adjacency.put(currentSource, Arrays.copyOf(targets, size));
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// На виртуальных потоках запросов может быть сколько угодно, поэтому к пулу соединений их пропускает семафор
+@Slf4j
+@Component
+public class DataSourceGatePostProcessor implements BeanPostProcessor {
+    private final boolean enabled;
+    private final int maxConcurrency;
+    private final Duration acquireTimeout;
+
+    public DataSourceGatePostProcessor(
+            @Value("${filmorate.jdbc.gate.enabled:${spring.threads.virtual.enabled:false}}") boolean enabled,
+            @Value("${filmorate.jdbc.gate.max-concurrency:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrency,
+            @Value("${filmorate.jdbc.gate.acquire-timeout:5s}") Duration acquireTimeout) {
+        this.enabled = enabled;
+        this.maxConcurrency = maxConcurrency;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!enabled || !(bean instanceof DataSource dataSource) || bean instanceof GatedDataSource) {
+            return bean;
+        }
+
+        log.info("Доступ к источнику данных {} ограничен {} одновременными соединениями", beanName, maxConcurrency);
+        return new GatedDataSource(dataSource, maxConcurrency, acquireTimeout);
+    }
+}
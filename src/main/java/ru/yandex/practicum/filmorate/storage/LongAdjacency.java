@@ -0,0 +1,195 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class LongAdjacency {
+    public static final long[] EMPTY = new long[0];
+
+    // Списки соседей отсортированы и не изменяются после публикации: любая запись заменяет массив целиком
+    private final Map<Long, long[]> targets = new ConcurrentHashMap<>();
+    private final Map<Long, long[]> sources = new ConcurrentHashMap<>();
+
+    public void load(Map<Long, long[]> adjacency) {
+        Map<Long, Integer> sourceCounts = new HashMap<>();
+        adjacency.forEach((source, targetIds) -> {
+            Arrays.sort(targetIds);
+            for (long target : targetIds) {
+                sourceCounts.merge(target, 1, Integer::sum);
+            }
+        });
+
+        Map<Long, long[]> sourceLists = new HashMap<>();
+        Map<Long, Integer> positions = new HashMap<>();
+        sourceCounts.forEach((target, count) -> sourceLists.put(target, new long[count]));
+        // Обход источников по возрастанию id даёт уже отсортированные обратные списки
+        adjacency.keySet().stream().sorted().forEach(source -> {
+            for (long target : adjacency.get(source)) {
+                int position = positions.merge(target, 1, Integer::sum) - 1;
+                sourceLists.get(target)[position] = source;
+            }
+        });
+
+        clear();
+        targets.putAll(adjacency);
+        sources.putAll(sourceLists);
+    }
+
+    // Обратный список меняется внутри compute по источнику: блокировка ключа источника упорядочивает
+    // изменения одного ребра, и обратное ребро не переживает прямое. Вложенность всегда targets -> sources
+    public boolean add(long source, long target) {
+        boolean[] added = new boolean[1];
+        targets.compute(source, (id, ids) -> {
+            long[] updated = insert(ids, target);
+            added[0] = updated != ids;
+            if (added[0]) {
+                sources.compute(target, (key, sourceIds) -> insert(sourceIds, source));
+            }
+            return updated;
+        });
+        return added[0];
+    }
+
+    public boolean remove(long source, long target) {
+        boolean[] removed = new boolean[1];
+        targets.computeIfPresent(source, (id, ids) -> {
+            long[] updated = delete(ids, target);
+            removed[0] = updated != ids;
+            if (removed[0]) {
+                removeFrom(sources, target, source);
+            }
+            return updated.length == 0 ? null : updated;
+        });
+        return removed[0];
+    }
+
+    public void removeSource(long source) {
+        targets.computeIfPresent(source, (id, ids) -> {
+            for (long target : ids) {
+                removeFrom(sources, target, source);
+            }
+            return null;
+        });
+    }
+
+    public void removeTarget(long target) {
+        for (long source : getSources(target)) {
+            remove(source, target);
+        }
+    }
+
+    public void clear() {
+        targets.clear();
+        sources.clear();
+    }
+
+    // Возвращаемые массивы нельзя изменять
+    public long[] getTargets(long source) {
+        return targets.getOrDefault(source, EMPTY);
+    }
+
+    public long[] getSources(long target) {
+        return sources.getOrDefault(target, EMPTY);
+    }
+
+    public int size() {
+        return targets.size();
+    }
+
+    public static long[] intersect(long[] first, long[] second) {
+        if (first.length > second.length) {
+            long[] swap = first;
+            first = second;
+            second = swap;
+        }
+        if (first.length == 0) {
+            return EMPTY;
+        }
+
+        // Для сильно разных по размеру списков бинарный поиск дешевле слияния
+        int binarySearchCost = first.length * (64 - Long.numberOfLeadingZeros(second.length));
+        return binarySearchCost < first.length + second.length
+                ? intersectBySearch(first, second)
+                : intersectByMerge(first, second);
+    }
+
+    private static boolean removeFrom(Map<Long, long[]> lists, long key, long value) {
+        boolean[] removed = new boolean[1];
+        lists.computeIfPresent(key, (id, ids) -> {
+            long[] updated = delete(ids, value);
+            removed[0] = updated != ids;
+            return updated.length == 0 ? null : updated;
+        });
+        return removed[0];
+    }
+
+    private static long[] intersectByMerge(long[] first, long[] second) {
+        long[] result = new long[first.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result[size++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static long[] intersectBySearch(long[] smaller, long[] larger) {
+        long[] result = new long[smaller.length];
+        int size = 0;
+        int from = 0;
+        for (long id : smaller) {
+            int index = Arrays.binarySearch(larger, from, larger.length, id);
+            if (index >= 0) {
+                result[size++] = id;
+                from = index + 1;
+            } else {
+                from = -index - 1;
+            }
+            if (from == larger.length) {
+                break;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    public static long[] insert(long[] ids, long id) {
+        if (ids == null) {
+            return new long[]{id};
+        }
+
+        int index = Arrays.binarySearch(ids, id);
+        if (index >= 0) {
+            return ids;
+        }
+
+        int position = -index - 1;
+        long[] updated = new long[ids.length + 1];
+        System.arraycopy(ids, 0, updated, 0, position);
+        updated[position] = id;
+        System.arraycopy(ids, position, updated, position + 1, ids.length - position);
+        return updated;
+    }
+
+    public static long[] delete(long[] ids, long id) {
+        int index = Arrays.binarySearch(ids, id);
+        if (index < 0) {
+            return ids;
+        }
+
+        long[] updated = new long[ids.length - 1];
+        System.arraycopy(ids, 0, updated, 0, index);
+        System.arraycopy(ids, index + 1, updated, index, ids.length - index - 1);
+        return updated;
+    }
+}
@@ -0,0 +1,153 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.Arrays;
+
+public class LongCounter {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] counts;
+    private int size;
+
+    public LongCounter(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        counts = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    public void increment(long key) {
+        add(key, 1);
+    }
+
+    public void add(long key, int delta) {
+        int index = indexOf(key, keys);
+        if (keys[index] == EMPTY) {
+            keys[index] = key;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+            index = indexOf(key, keys);
+        }
+        counts[index] += delta;
+    }
+
+    public int get(long key) {
+        int index = indexOf(key, keys);
+        return keys[index] == EMPTY ? 0 : counts[index];
+    }
+
+    public void addAll(LongCounter other) {
+        other.forEach(this::add);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                visitor.visit(keys[i], counts[i]);
+            }
+        }
+    }
+
+    // Ключи с наибольшими значениями, при равенстве — с меньшим ключом
+    public long[] top(int limit) {
+        int capacity = Math.min(limit, size);
+        long[] ids = new long[capacity];
+        int[] counts = new int[capacity];
+        int[] size = {0};
+
+        // Min-куча из limit лучших кандидатов: в корне худший из отобранных
+        forEach((id, count) -> {
+            if (size[0] < capacity) {
+                ids[size[0]] = id;
+                counts[size[0]] = count;
+                siftUp(ids, counts, size[0]++);
+            } else if (capacity > 0 && isBetter(id, count, ids[0], counts[0])) {
+                ids[0] = id;
+                counts[0] = count;
+                siftDown(ids, counts, 0, capacity);
+            }
+        });
+
+        long[] result = new long[size[0]];
+        for (int i = size[0] - 1; i >= 0; i--) {
+            result[i] = ids[0];
+            ids[0] = ids[i];
+            counts[0] = counts[i];
+            siftDown(ids, counts, 0, i);
+        }
+        return result;
+    }
+
+    private static boolean isBetter(long id, int count, long otherId, int otherCount) {
+        return count > otherCount || (count == otherCount && id < otherId);
+    }
+
+    private static void siftUp(long[] ids, int[] counts, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!isBetter(ids[parent], counts[parent], ids[index], counts[index])) {
+                return;
+            }
+            swap(ids, counts, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(long[] ids, int[] counts, int index, int size) {
+        while (true) {
+            int worst = index;
+            for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                if (isBetter(ids[worst], counts[worst], ids[child], counts[child])) {
+                    worst = child;
+                }
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(ids, counts, index, worst);
+            index = worst;
+        }
+    }
+
+    private static void swap(long[] ids, int[] counts, int i, int j) {
+        long id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+        int count = counts[i];
+        counts[i] = counts[j];
+        counts[j] = count;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = indexOf(oldKeys[i], keys);
+                keys[index] = oldKeys[i];
+                counts[index] = oldCounts[i];
+            }
+        }
+    }
+
+    private static int indexOf(long key, long[] keys) {
+        int mask = keys.length - 1;
+        int index = (int) (key * 0x9E3779B97F4A7C15L >>> 32) & mask;
+        while (keys[index] != EMPTY && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    public interface Visitor {
+        void visit(long key, int count);
+    }
+}
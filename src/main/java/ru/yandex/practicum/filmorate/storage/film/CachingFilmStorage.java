@@ -0,0 +1,177 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.user.UserDeletedEvent;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Component
+public class CachingFilmStorage implements FilmStorage {
+    private final FilmStorage filmStorage;
+    private final Cache<Long, Film> films;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public CachingFilmStorage(@Qualifier("writeBehindFilmStorage") FilmStorage filmStorage,
+                              @Value("${filmorate.cache.max-size:10000}") long maxSize,
+                              @Value("${filmorate.cache.ttl:10m}") Duration ttl) {
+        this.filmStorage = filmStorage;
+        this.films = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Cache<Long, Film> getCache() {
+        return films;
+    }
+
+    public CacheStats getCacheStats() {
+        return films.stats();
+    }
+
+    @Override
+    public Film addFilm(Film film) {
+        return filmStorage.addFilm(film);
+    }
+
+    @Override
+    public List<Film> addFilms(List<Film> films) {
+        return filmStorage.addFilms(films);
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        try {
+            return filmStorage.updateFilm(film);
+        } finally {
+            invalidate(List.of(film.getId()));
+        }
+    }
+
+    @Override
+    public Film getFilmById(long id) {
+        return copy(films.get(id, filmStorage::getFilmById));
+    }
+
+    @Override
+    public List<Film> getAllFilms() {
+        return filmStorage.getAllFilms();
+    }
+
+    @Override
+    public List<Film> getFilmsPage(long afterId, int limit) {
+        return filmStorage.getFilmsPage(afterId, limit);
+    }
+
+    @Override
+    public void streamAllFilms(Consumer<Film> consumer) {
+        filmStorage.streamAllFilms(consumer);
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(Collection<Long> ids) {
+        // getAll не ждёт параллельного invalidate, поэтому загруженные пачкой фильмы кладутся в кэш по одному
+        // и только если с начала загрузки не было ни одной инвалидации
+        long generation = invalidations.get();
+        Map<Long, Film> foundFilms = new HashMap<>(films.getAllPresent(ids));
+        List<Long> missingIds = ids.stream()
+                .filter(id -> !foundFilms.containsKey(id))
+                .distinct()
+                .collect(Collectors.toList());
+        if (!missingIds.isEmpty()) {
+            filmStorage.getFilmsByIds(missingIds).forEach(film -> {
+                foundFilms.put(film.getId(), film);
+                films.asMap().compute(film.getId(), (id, cached) ->
+                        cached == null && invalidations.get() == generation ? film : cached);
+            });
+        }
+
+        return ids.stream()
+                .map(foundFilms::get)
+                .filter(Objects::nonNull)
+                .map(CachingFilmStorage::copy)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count) {
+        return filmStorage.getPopularFilms(count);
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count, Long genreId, Long mpaId, Integer year) {
+        return filmStorage.getPopularFilms(count, genreId, mpaId, year);
+    }
+
+    @Override
+    public List<Film> getRecommendedFilms(long userId, int limit) {
+        return filmStorage.getRecommendedFilms(userId, limit);
+    }
+
+    @Override
+    public void deleteFilmById(long filmId) {
+        filmStorage.deleteFilmById(filmId);
+        invalidate(List.of(filmId));
+    }
+
+    @Override
+    public boolean addLike(long filmId, long userId) {
+        boolean added = filmStorage.addLike(filmId, userId);
+        if (added) {
+            invalidate(List.of(filmId));
+        }
+        return added;
+    }
+
+    @Override
+    public boolean deleteLike(long filmId, long userId) {
+        boolean deleted = filmStorage.deleteLike(filmId, userId);
+        if (deleted) {
+            invalidate(List.of(filmId));
+        }
+        return deleted;
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        invalidate(event.likedFilmIds());
+    }
+
+    // Счётчик растёт до удаления из кэша, чтобы пакетная загрузка, начатая раньше, не вернула старую запись
+    private void invalidate(Collection<Long> ids) {
+        invalidations.incrementAndGet();
+        films.invalidateAll(ids);
+    }
+
+    // Наружу отдаётся копия: вызывающий код меняет фильм на месте, и это не должно портить кэш
+    private static Film copy(Film film) {
+        Film copy = new Film();
+        copy.setId(film.getId());
+        copy.setName(film.getName());
+        copy.setDescription(film.getDescription());
+        copy.setReleaseDate(film.getReleaseDate());
+        copy.setDuration(film.getDuration());
+        copy.setLikes(new HashSet<>(film.getLikes()));
+        copy.setMpaRating(film.getMpaRating());
+        copy.setGenres(new LinkedHashSet<>(film.getGenres()));
+        copy.setVersion(film.getVersion());
+        return copy;
+    }
+}
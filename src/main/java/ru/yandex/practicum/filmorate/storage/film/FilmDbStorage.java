@@ -1,121 +1,187 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.storage.reference.ReferenceDataRegistry;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Repository
-@RequiredArgsConstructor
 public class FilmDbStorage implements FilmStorage {
+    private static final int STREAM_CHUNK_SIZE = 1000;
+    // Запросы, планы которых проверяются в тестах
+    static final String RECOMMENDED_FILMS_SQL = "WITH similar_users AS (" +
+            "SELECT l2.user_id, COUNT(*) AS overlap FROM likes l1 " +
+            "JOIN likes l2 ON l1.film_id = l2.film_id AND l2.user_id <> l1.user_id " +
+            "WHERE l1.user_id = ? " +
+            "GROUP BY l2.user_id " +
+            "ORDER BY overlap DESC, l2.user_id " +
+            "LIMIT ?) " +
+            "SELECT l.film_id FROM likes l " +
+            "JOIN similar_users s ON l.user_id = s.user_id " +
+            "WHERE l.film_id NOT IN (SELECT film_id FROM likes WHERE user_id = ?) " +
+            "GROUP BY l.film_id " +
+            "ORDER BY SUM(s.overlap) DESC, l.film_id " +
+            "LIMIT ?";
+
+    static final String POPULAR_FILMS_SQL = "SELECT f.* FROM films f WHERE TRUE";
+    static final String POPULAR_GENRE_FILTER_SQL =
+            " AND f.film_id IN (SELECT fg.film_id FROM film_genres fg WHERE fg.genre_id = ?)";
+    static final String POPULAR_MPA_FILTER_SQL = " AND f.mpa_rating_id = ?";
+    static final String POPULAR_YEAR_FILTER_SQL = " AND f.release_date >= ? AND f.release_date < ?";
+    static final String POPULAR_ORDER_SQL = " ORDER BY f.likes_count DESC, f.film_id ASC LIMIT ?";
+
     private final JdbcTemplate jdbcTemplate;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final int similarUsers;
+
+    @Autowired
+    public FilmDbStorage(JdbcTemplate jdbcTemplate,
+                         ReferenceDataRegistry referenceDataRegistry,
+                         @Value("${filmorate.recommendations.similar-users:20}") int similarUsers) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.referenceDataRegistry = referenceDataRegistry;
+        this.similarUsers = similarUsers;
+    }
 
     @Override
+    @Transactional
     public Film addFilm(Film film) {
-        if (film.getReleaseDate().isBefore(LocalDate.of(1895, 12, 28))) {
-            log.error("Дата релиза фильма ранее 28.12.1895");
-            throw new ValidationException("Дата релиза не может быть раньше 28 декабря 1895 года");
-        }
-
-        String checkMpaQuery = "SELECT COUNT(*) FROM mpa_ratings WHERE mpa_rating_id = ?";
-        int mpaCount = jdbcTemplate.queryForObject(checkMpaQuery, Integer.class, film.getMpaRating().getId());
+        return addFilms(List.of(film)).get(0);
+    }
 
-        if (mpaCount == 0) {
-            log.error("Неверный MPA рейтинг для фильма {}", film.getName());
-            throw new ValidationException("Неверный MPA рейтинг.");
+    @Override
+    @Transactional
+    public List<Film> addFilms(List<Film> films) {
+        List<Set<Genre>> filmGenres = new ArrayList<>();
+        for (Film film : films) {
+            filmGenres.add(validateFilm(film));
         }
 
         String sqlQuery = "INSERT INTO films (name, description, release_date, duration, mpa_rating_id) " +
                 "VALUES (?, ?, ?, ?, ?)";
 
         KeyHolder keyHolder = new GeneratedKeyHolder();
-        jdbcTemplate.update(connection -> {
-            PreparedStatement stmt = connection.prepareStatement(sqlQuery, new String[]{"film_id"});
-            stmt.setString(1, film.getName());
-            stmt.setString(2, film.getDescription());
-            stmt.setDate(3, java.sql.Date.valueOf(film.getReleaseDate()));
-            stmt.setInt(4, film.getDuration());
-            stmt.setLong(5, film.getMpaRating().getId());
-            return stmt;
-        }, keyHolder);
-
-        film.setId(Objects.requireNonNull(keyHolder.getKey()).longValue());
-
-        if (film.getGenres() != null && !film.getGenres().isEmpty()) {
-            List<Genre> requestGenres = new ArrayList<>(film.getGenres());
-            for (Genre genre : requestGenres) {
-                String checkGenreQuery = "SELECT COUNT(*) FROM genres WHERE id = ?";
-                int genreCount = jdbcTemplate.queryForObject(checkGenreQuery, Integer.class, genre.getId());
-                if (genreCount == 0) {
-                    log.error("Жанр с id {} не найден.", genre.getId());
-                    throw new ValidationException("Жанр с id " + genre.getId() + " не найден.");
-                }
-            }
-
-            String sqlGenreQuery = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
-            List<Object[]> batchParams = new ArrayList<>();
-
-            for (Genre genre : requestGenres) {
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(sqlQuery, new String[]{"film_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement stmt, int i) throws SQLException {
+                        Film film = films.get(i);
+                        stmt.setString(1, film.getName());
+                        stmt.setString(2, film.getDescription());
+                        stmt.setDate(3, java.sql.Date.valueOf(film.getReleaseDate()));
+                        stmt.setInt(4, film.getDuration());
+                        stmt.setLong(5, film.getMpaRating().getId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return films.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        List<Object[]> batchParams = new ArrayList<>();
+
+        for (int i = 0; i < films.size(); i++) {
+            Film film = films.get(i);
+            film.setId(((Number) keys.get(i).values().iterator().next()).longValue());
+            film.setGenres(filmGenres.get(i));
+            film.setLikes(new HashSet<>());
+            film.setVersion(1);
+
+            for (Genre genre : film.getGenres()) {
                 batchParams.add(new Object[]{film.getId(), genre.getId()});
             }
+        }
 
+        if (!batchParams.isEmpty()) {
+            String sqlGenreQuery = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
             jdbcTemplate.batchUpdate(sqlGenreQuery, batchParams);
-        } else {
-            film.setGenres(new HashSet<>());
         }
 
-        setMpaToFilm(film);
-        setGenresToFilm(film);
-
-        return film;
+        return films;
     }
 
     @Override
+    @Transactional
     public Film updateFilm(Film film) {
-        if (getFilmById(film.getId()) != null) {
-            String sql = "UPDATE films SET name = ?, description = ?, release_date = ?, " +
-                    "duration = ?, mpa_rating_id = ? WHERE film_id = ?";
-            jdbcTemplate.update(
-                    sql,
-                    film.getName(),
-                    film.getDescription(),
-                    film.getReleaseDate(),
-                    film.getDuration(),
-                    film.getMpaRating().getId(),
-                    film.getId()
-            );
-            return film;
-        } else {
+        Set<Genre> genres = validateFilm(film);
+
+        // Число обновленных строк заменяет отдельную проверку существования фильма
+        String sql = "UPDATE films SET name = ?, description = ?, release_date = ?, " +
+                "duration = ?, mpa_rating_id = ?, version = version + 1 WHERE film_id = ?";
+        int updated = jdbcTemplate.update(
+                sql,
+                film.getName(),
+                film.getDescription(),
+                film.getReleaseDate(),
+                film.getDuration(),
+                film.getMpaRating().getId(),
+                film.getId()
+        );
+        if (updated == 0) {
+            log.warn("Фильм с id {} не найден", film.getId());
             throw new NotFoundException("Фильм не найден");
         }
+
+        // UPDATE заблокировал строку фильма, поэтому параллельное обновление того же фильма дождется коммита
+        // и посчитает разницу жанров уже от записанного состояния. Жанры, лайки и новая версия читаются одним запросом
+        String storedSql = "SELECT 'G' AS kind, genre_id AS related_id FROM film_genres WHERE film_id = ? " +
+                "UNION ALL " +
+                "SELECT 'L' AS kind, user_id AS related_id FROM likes WHERE film_id = ? " +
+                "UNION ALL " +
+                "SELECT 'V' AS kind, version AS related_id FROM films WHERE film_id = ?";
+        Set<Long> currentGenreIds = new HashSet<>();
+        Set<Long> likes = new HashSet<>();
+        jdbcTemplate.query(storedSql, rs -> {
+            long relatedId = rs.getLong("related_id");
+            switch (rs.getString("kind")) {
+                case "G" -> currentGenreIds.add(relatedId);
+                case "L" -> likes.add(relatedId);
+                default -> film.setVersion(relatedId);
+            }
+        }, film.getId(), film.getId(), film.getId());
+        replaceGenres(film.getId(), currentGenreIds, genres);
+
+        film.setGenres(genres);
+        film.setLikes(likes);
+        return film;
     }
 
     @Override
     public Film getFilmById(long id) {
-        String sqlQuery = "SELECT f.*, m.rating AS mpa_rating_name FROM films f " +
-                "LEFT JOIN mpa_ratings m ON f.mpa_rating_id = m.mpa_rating_id " +
+        String sqlQuery = "SELECT f.* FROM films f " +
                 "WHERE f.film_id = ?";
 
         try {
             Film film = jdbcTemplate.queryForObject(sqlQuery, new FilmMapper(), id);
-            film.setGenres(getGenresForFilm(id));
-            return film;
+            return hydrate(List.of(film)).get(0);
         } catch (EmptyResultDataAccessException e) {
             throw new NotFoundException("Фильм не найден");
         }
@@ -123,9 +189,61 @@ public class FilmDbStorage implements FilmStorage {
 
     @Override
     public List<Film> getAllFilms() {
-        String sql = "SELECT f.*, m.rating AS mpa_rating_name FROM films f " +
-                "JOIN mpa_ratings m ON f.mpa_rating_id = m.mpa_rating_id";
-        return jdbcTemplate.query(sql, new FilmMapper());
+        String sql = "SELECT f.* FROM films f " +
+                "ORDER BY f.film_id";
+        List<Film> films = jdbcTemplate.query(sql, new FilmMapper());
+        return hydrate(films, "", "");
+    }
+
+    @Override
+    public List<Film> getFilmsPage(long afterId, int limit) {
+        String sql = "SELECT f.* FROM films f " +
+                "WHERE f.film_id > ? " +
+                "ORDER BY f.film_id " +
+                "LIMIT ?";
+        return hydrate(jdbcTemplate.query(sql, new FilmMapper(), afterId, limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllFilms(Consumer<Film> consumer) {
+        String sql = "SELECT f.* FROM films f ORDER BY f.film_id";
+        FilmMapper filmMapper = new FilmMapper();
+        List<Film> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement stmt = connection.prepareStatement(sql);
+            stmt.setFetchSize(STREAM_CHUNK_SIZE);
+            return stmt;
+        }, rs -> {
+            chunk.add(filmMapper.mapRow(rs, rs.getRow()));
+            if (chunk.size() == STREAM_CHUNK_SIZE) {
+                hydrate(chunk).forEach(consumer);
+                chunk.clear();
+            }
+        });
+
+        hydrate(chunk).forEach(consumer);
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        String sql = "SELECT f.* FROM films f " +
+                "WHERE f.film_id IN (" + placeholders + ")";
+
+        Map<Long, Film> filmsById = new HashMap<>();
+        hydrate(jdbcTemplate.query(sql, new FilmMapper(), ids.toArray()))
+                .forEach(film -> filmsById.put(film.getId(), film));
+
+        return ids.stream()
+                .map(filmsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -134,30 +252,56 @@ public class FilmDbStorage implements FilmStorage {
             throw new ValidationException("Количество популярных фильмов должно быть положительным числом");
         }
 
-        String sql = "SELECT f.film_id, f.name, f.description, f.release_date, f.duration, f.mpa_rating_id, " +
-                "m.rating AS mpa_rating_name, COUNT(l.user_id) AS likes_count " +
-                "FROM films f " +
-                "LEFT JOIN likes l ON f.film_id = l.film_id " +
-                "JOIN mpa_ratings m ON f.mpa_rating_id = m.mpa_rating_id " +
-                "GROUP BY f.film_id, m.mpa_rating_id, m.rating " +
-                "ORDER BY likes_count DESC, f.film_id ASC " +
+        String sql = "SELECT f.* FROM films f " +
+                "ORDER BY f.likes_count DESC, f.film_id ASC " +
                 "LIMIT ?";
 
-        return jdbcTemplate.query(sql, (rs, rowNum) -> {
-            Film film = new Film();
-            film.setId(rs.getLong("film_id"));
-            film.setName(rs.getString("name"));
-            film.setDescription(rs.getString("description"));
-            film.setReleaseDate(rs.getDate("release_date").toLocalDate());
-            film.setDuration(rs.getInt("duration"));
+        return hydrate(jdbcTemplate.query(sql, new FilmMapper(), count));
+    }
 
-            MpaRating mpa = new MpaRating();
-            mpa.setId(rs.getLong("mpa_rating_id"));
-            mpa.setName(rs.getString("mpa_rating_name"));
-            film.setMpaRating(mpa);
+    @Override
+    public List<Film> getPopularFilms(int count, Long genreId, Long mpaId, Integer year) {
+        if (count <= 0) {
+            throw new ValidationException("Количество популярных фильмов должно быть положительным числом");
+        }
 
-            return film;
-        }, count);
+        // Условия собираются только по заданным фильтрам, чтобы H2 мог использовать составные индексы
+        List<Object> params = new ArrayList<>();
+        if (genreId != null) {
+            params.add(genreId);
+        }
+        if (mpaId != null) {
+            params.add(mpaId);
+        }
+        if (year != null) {
+            params.add(LocalDate.of(year, 1, 1));
+            params.add(LocalDate.of(year + 1, 1, 1));
+        }
+        params.add(count);
+
+        String sql = popularFilmsSql(genreId != null, mpaId != null, year != null);
+        return hydrate(jdbcTemplate.query(sql, new FilmMapper(), params.toArray()));
+    }
+
+    static String popularFilmsSql(boolean byGenre, boolean byMpa, boolean byYear) {
+        StringBuilder sql = new StringBuilder(POPULAR_FILMS_SQL);
+        if (byGenre) {
+            sql.append(POPULAR_GENRE_FILTER_SQL);
+        }
+        if (byMpa) {
+            sql.append(POPULAR_MPA_FILTER_SQL);
+        }
+        if (byYear) {
+            sql.append(POPULAR_YEAR_FILTER_SQL);
+        }
+        return sql.append(POPULAR_ORDER_SQL).toString();
+    }
+
+    @Override
+    public List<Film> getRecommendedFilms(long userId, int limit) {
+        List<Long> filmIds = jdbcTemplate.queryForList(RECOMMENDED_FILMS_SQL, Long.class, userId, similarUsers,
+                userId, limit);
+        return getFilmsByIds(filmIds);
     }
 
     @Override
@@ -167,25 +311,46 @@ public class FilmDbStorage implements FilmStorage {
     }
 
     @Override
-    public void addLike(long filmId, long userId) {
-        String checkSql = "SELECT COUNT(*) FROM likes WHERE film_id = ? AND user_id = ?";
-        int count = jdbcTemplate.queryForObject(checkSql, Integer.class, filmId, userId);
-
-        if (count == 0) {
-            String sql = "INSERT INTO likes (film_id, user_id) VALUES (?, ?)";
-            jdbcTemplate.update(sql, filmId, userId);
-        } else {
+    @Transactional
+    public boolean addLike(long filmId, long userId) {
+        String sql = "MERGE INTO likes l " +
+                "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT))) AS s (film_id, user_id) " +
+                "ON l.film_id = s.film_id AND l.user_id = s.user_id " +
+                "WHEN NOT MATCHED THEN INSERT (film_id, user_id) VALUES (s.film_id, s.user_id)";
+        int inserted;
+        try {
+            inserted = jdbcTemplate.update(sql, filmId, userId);
+        } catch (DuplicateKeyException e) {
+            // Тот же лайк успел вставить параллельный запрос
+            inserted = 0;
+        } catch (DataIntegrityViolationException e) {
+            throw new NotFoundException("Фильм " + filmId + " или пользователь " + userId + " не найден");
+        }
+
+        if (inserted == 0) {
             log.warn("Лайк уже существует для фильма {} от пользователя {}", filmId, userId);
+            return false;
         }
+
+        String counterSql = "UPDATE films SET likes_count = likes_count + 1, version = version + 1 WHERE film_id = ?";
+        jdbcTemplate.update(counterSql, filmId);
+        return true;
     }
 
     @Override
-    public void deleteLike(long filmId, long userId) {
+    @Transactional
+    public boolean deleteLike(long filmId, long userId) {
         String sql = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
-        jdbcTemplate.update(sql, filmId, userId);
+        if (jdbcTemplate.update(sql, filmId, userId) == 0) {
+            return false;
+        }
+
+        String counterSql = "UPDATE films SET likes_count = likes_count - 1, version = version + 1 WHERE film_id = ?";
+        jdbcTemplate.update(counterSql, filmId);
+        return true;
     }
 
-    private static class FilmMapper implements RowMapper<Film> {
+    private class FilmMapper implements RowMapper<Film> {
         @Override
         public Film mapRow(ResultSet rs, int rowNum) throws SQLException {
             Film film = new Film();
@@ -194,58 +359,120 @@ public class FilmDbStorage implements FilmStorage {
             film.setDescription(rs.getString("description"));
             film.setReleaseDate(rs.getDate("release_date").toLocalDate());
             film.setDuration(rs.getInt("duration"));
-            film.setMpaRating(new MpaRating(rs.getLong("mpa_rating_id"), rs.getString("mpa_rating_name")));
+            film.setMpaRating(referenceDataRegistry.findMpaRating(rs.getLong("mpa_rating_id")));
+            film.setVersion(rs.getLong("version"));
             return film;
         }
     }
 
-    private Set<Genre> getGenresForFilm(long filmId) {
-        String sql = "SELECT g.id, g.name FROM genres g " +
-                "JOIN film_genres fg ON g.id = fg.genre_id " +
-                "WHERE fg.film_id = ?";
+    private List<Film> hydrate(List<Film> films) {
+        if (films.isEmpty()) {
+            return films;
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(films.size(), "?"));
+        Object[] ids = films.stream().map(Film::getId).toArray();
+        return hydrate(films, "WHERE fg.film_id IN (" + placeholders + ") ",
+                "WHERE l.film_id IN (" + placeholders + ") ", ids);
+    }
+
+    private List<Film> hydrate(List<Film> films, String genresFilter, String likesFilter, Object... ids) {
+        Map<Long, Film> filmsById = new HashMap<>();
+        for (Film film : films) {
+            film.setGenres(new LinkedHashSet<>());
+            film.setLikes(new HashSet<>());
+            filmsById.put(film.getId(), film);
+        }
 
-        List<Genre> genres = jdbcTemplate.query(sql, (rs, rowNum) ->
-                new Genre(rs.getLong("id"), rs.getString("name")), filmId);
+        // Жанры и лайки загружаются за один запрос, строки различаются по kind
+        String sql = "SELECT 'G' AS kind, fg.film_id, fg.genre_id AS related_id FROM film_genres fg " +
+                genresFilter +
+                "UNION ALL " +
+                "SELECT 'L' AS kind, l.film_id, l.user_id AS related_id FROM likes l " +
+                likesFilter;
+        Object[] params = new Object[ids.length * 2];
+        System.arraycopy(ids, 0, params, 0, ids.length);
+        System.arraycopy(ids, 0, params, ids.length, ids.length);
+
+        jdbcTemplate.query(sql, rs -> {
+            Film film = filmsById.get(rs.getLong("film_id"));
+            if (film == null) {
+                return;
+            }
+            if ("G".equals(rs.getString("kind"))) {
+                Genre genre = referenceDataRegistry.findGenre(rs.getLong("related_id"));
+                if (genre != null) {
+                    film.getGenres().add(genre);
+                }
+            } else {
+                film.getLikes().add(rs.getLong("related_id"));
+            }
+        }, params);
+
+        // UNION ALL не сохраняет порядок, а жанры отдаются по возрастанию id
+        for (Film film : films) {
+            if (film.getGenres().size() > 1) {
+                film.setGenres(film.getGenres().stream()
+                        .sorted(Comparator.comparingLong(Genre::getId))
+                        .collect(Collectors.toCollection(LinkedHashSet::new)));
+            }
+        }
 
-        return new HashSet<>(genres);
+        return films;
     }
 
-    private void setMpaToFilm(Film film) {
-        String sqlMpaQuery = "SELECT " +
-                "mpa_rating_id, " +
-                "rating " +
-                "FROM mpa_ratings " +
-                "WHERE mpa_rating_id = ?";
+    private void replaceGenres(long filmId, Set<Long> currentGenreIds, Set<Genre> newGenres) {
+        Set<Long> newGenreIds = newGenres.stream()
+                .map(Genre::getId)
+                .collect(Collectors.toSet());
+        List<Object[]> removed = currentGenreIds.stream()
+                .filter(genreId -> !newGenreIds.contains(genreId))
+                .map(genreId -> new Object[]{filmId, genreId})
+                .toList();
+        List<Object[]> added = newGenreIds.stream()
+                .filter(genreId -> !currentGenreIds.contains(genreId))
+                .map(genreId -> new Object[]{filmId, genreId})
+                .toList();
+
+        if (!removed.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM film_genres WHERE film_id = ? AND genre_id = ?", removed);
+        }
+        if (!added.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", added);
+        }
+    }
 
-        film.setMpaRating(
-                jdbcTemplate.queryForObject(
-                        sqlMpaQuery,
-                        (rs, rowNum) -> new MpaRating(
-                                rs.getLong("mpa_rating_id"),
-                                rs.getString("rating")
-                        ),
-                        film.getMpaRating().getId()
-                )
-        );
+    private Set<Genre> validateFilm(Film film) {
+        if (film.getReleaseDate().isBefore(LocalDate.of(1895, 12, 28))) {
+            log.error("Дата релиза фильма ранее 28.12.1895");
+            throw new ValidationException("Дата релиза не может быть раньше 28 декабря 1895 года");
+        }
+
+        MpaRating mpaRating = referenceDataRegistry.findMpaRating(film.getMpaRating().getId());
+
+        if (mpaRating == null) {
+            log.error("Неверный MPA рейтинг для фильма {}", film.getName());
+            throw new ValidationException("Неверный MPA рейтинг.");
+        }
+
+        film.setMpaRating(mpaRating);
+        return resolveGenres(film);
     }
 
-    private void setGenresToFilm(Film film) {
-        String sqlGenresQuery = "SELECT " +
-                "g.id AS genre_id, " +
-                "g.name AS genre_name " +
-                "FROM film_genres fg " +
-                "JOIN genres g ON g.id = fg.genre_id " +
-                "WHERE fg.film_id = ?";
-
-        film.setGenres(new LinkedHashSet<>(
-                jdbcTemplate.query(
-                        sqlGenresQuery,
-                        (rs, rowNum) -> new Genre(
-                                rs.getLong("genre_id"),
-                                rs.getString("genre_name")
-                        ),
-                        film.getId()
-                )
-        ));
+    private Set<Genre> resolveGenres(Film film) {
+        Map<Long, Genre> genresById = new TreeMap<>();
+
+        if (film.getGenres() != null) {
+            for (Genre requestGenre : film.getGenres()) {
+                Genre genre = referenceDataRegistry.findGenre(requestGenre.getId());
+                if (genre == null) {
+                    log.error("Жанр с id {} не найден.", requestGenre.getId());
+                    throw new ValidationException("Жанр с id " + requestGenre.getId() + " не найден.");
+                }
+                genresById.put(genre.getId(), genre);
+            }
+        }
+
+        return new LinkedHashSet<>(genresById.values());
     }
 }
\ No newline at end of file
@@ -0,0 +1,177 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import ru.yandex.practicum.filmorate.storage.LongAdjacency;
+import ru.yandex.practicum.filmorate.storage.LongCounter;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongUnaryOperator;
+
+public class FilmSearchIndex {
+    private static final int TITLE_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int EXACT_MATCH_FACTOR = 2;
+    private static final Comparator<Candidate> RANKING = Comparator.comparingInt(Candidate::score)
+            .thenComparingLong(Candidate::likes)
+            .thenComparing(Comparator.comparingLong(Candidate::filmId).reversed());
+
+    // Термин -> отсортированные id фильмов; отсортированный словарь позволяет искать по префиксу
+    private final NavigableMap<String, long[]> titleTerms = new ConcurrentSkipListMap<>();
+    private final NavigableMap<String, long[]> descriptionTerms = new ConcurrentSkipListMap<>();
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+
+    // Списки фильма правятся под блокировкой его ключа в documents, поэтому параллельные изменения
+    // одного фильма не оставляют записей по терминам, которых у него уже нет
+    public void put(long filmId, String title, String description) {
+        Document document = new Document(terms(title), terms(description));
+        documents.compute(filmId, (id, previous) -> {
+            String[] previousTitleTerms = previous == null ? new String[0] : previous.titleTerms();
+            String[] previousDescriptionTerms = previous == null ? new String[0] : previous.descriptionTerms();
+            replacePostings(titleTerms, previousTitleTerms, document.titleTerms(), filmId);
+            replacePostings(descriptionTerms, previousDescriptionTerms, document.descriptionTerms(), filmId);
+            return document;
+        });
+    }
+
+    public void remove(long filmId) {
+        documents.computeIfPresent(filmId, (id, previous) -> {
+            removePostings(titleTerms, previous.titleTerms(), filmId);
+            removePostings(descriptionTerms, previous.descriptionTerms(), filmId);
+            return null;
+        });
+    }
+
+    public void clear() {
+        documents.clear();
+        titleTerms.clear();
+        descriptionTerms.clear();
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    // Фильм должен содержать каждый термин запроса хотя бы в одном из полей, последний термин — как префикс
+    public long[] search(String query, boolean byTitle, boolean byDescription, int limit, LongUnaryOperator likes) {
+        String[] queryTerms = terms(query);
+        if (queryTerms.length == 0 || limit <= 0) {
+            return LongAdjacency.EMPTY;
+        }
+
+        LongCounter scores = null;
+        for (int i = 0; i < queryTerms.length; i++) {
+            boolean prefix = i == queryTerms.length - 1;
+            LongCounter termScores = new LongCounter(64);
+            if (byTitle) {
+                score(titleTerms, queryTerms[i], prefix, TITLE_WEIGHT, termScores);
+            }
+            if (byDescription) {
+                score(descriptionTerms, queryTerms[i], prefix, DESCRIPTION_WEIGHT, termScores);
+            }
+            scores = scores == null ? termScores : retainCommon(scores, termScores);
+            if (scores.size() == 0) {
+                return LongAdjacency.EMPTY;
+            }
+        }
+
+        // Очередь не больше числа найденных фильмов: limit приходит из запроса
+        PriorityQueue<Candidate> top = new PriorityQueue<>(Math.min(limit, scores.size()) + 1, RANKING);
+        scores.forEach((filmId, score) -> {
+            top.add(new Candidate(filmId, score, likes.applyAsLong(filmId)));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+
+        long[] result = new long[top.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = top.poll().filmId();
+        }
+        return result;
+    }
+
+    static String[] terms(String text) {
+        if (text == null || text.isEmpty()) {
+            return new String[0];
+        }
+
+        Set<String> terms = new LinkedHashSet<>();
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                term.append(fold(c));
+            } else if (term.length() > 0) {
+                terms.add(term.toString());
+                term.setLength(0);
+            }
+        }
+        return terms.toArray(new String[0]);
+    }
+
+    private static char fold(char c) {
+        char lower = Character.toLowerCase(c);
+        return lower == 'ё' ? 'е' : lower;
+    }
+
+    private static void score(NavigableMap<String, long[]> terms, String queryTerm, boolean prefix, int weight,
+                              LongCounter scores) {
+        Map<String, long[]> matches = prefix
+                ? terms.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false)
+                : Collections.singletonMap(queryTerm, terms.getOrDefault(queryTerm, LongAdjacency.EMPTY));
+        matches.forEach((term, filmIds) -> {
+            int termWeight = term.equals(queryTerm) ? weight * EXACT_MATCH_FACTOR : weight;
+            for (long filmId : filmIds) {
+                scores.add(filmId, termWeight);
+            }
+        });
+    }
+
+    private static LongCounter retainCommon(LongCounter scores, LongCounter termScores) {
+        LongCounter common = new LongCounter(Math.min(scores.size(), termScores.size()));
+        termScores.forEach((filmId, score) -> {
+            int previousScore = scores.get(filmId);
+            if (previousScore > 0) {
+                common.add(filmId, previousScore + score);
+            }
+        });
+        return common;
+    }
+
+    // Меняются только термины, которые отличаются: общие с прежней версией не пропадают из поиска
+    private static void replacePostings(Map<String, long[]> postings, String[] previousTerms, String[] terms,
+                                        long filmId) {
+        Set<String> current = Set.of(terms);
+        Set<String> previous = Set.of(previousTerms);
+        for (String term : previousTerms) {
+            if (!current.contains(term)) {
+                removePosting(postings, term, filmId);
+            }
+        }
+        for (String term : terms) {
+            if (!previous.contains(term)) {
+                postings.compute(term, (key, filmIds) -> LongAdjacency.insert(filmIds, filmId));
+            }
+        }
+    }
+
+    private static void removePostings(Map<String, long[]> postings, String[] terms, long filmId) {
+        for (String term : terms) {
+            removePosting(postings, term, filmId);
+        }
+    }
+
+    private static void removePosting(Map<String, long[]> postings, String term, long filmId) {
+        postings.computeIfPresent(term, (key, filmIds) -> {
+            long[] updated = LongAdjacency.delete(filmIds, filmId);
+            return updated.length == 0 ? null : updated;
+        });
+    }
+
+    private record Document(String[] titleTerms, String[] descriptionTerms) {
+    }
+
+    private record Candidate(long filmId, int score, long likes) {
+    }
+}
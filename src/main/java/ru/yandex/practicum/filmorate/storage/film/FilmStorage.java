@@ -2,22 +2,36 @@ package ru.yandex.practicum.filmorate.storage.film;
 
 import ru.yandex.practicum.filmorate.model.Film;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface FilmStorage {
     Film addFilm(Film film);
 
+    List<Film> addFilms(List<Film> films);
+
     Film updateFilm(Film film);
 
     Film getFilmById(long id);
 
     List<Film> getAllFilms();
 
+    List<Film> getFilmsByIds(Collection<Long> ids);
+
+    List<Film> getFilmsPage(long afterId, int limit);
+
+    void streamAllFilms(Consumer<Film> consumer);
+
     List<Film> getPopularFilms(int id);
 
+    List<Film> getPopularFilms(int count, Long genreId, Long mpaId, Integer year);
+
+    List<Film> getRecommendedFilms(long userId, int limit);
+
     void deleteFilmById(long filmId);
 
-    void addLike(long filmId, long userId);
+    boolean addLike(long filmId, long userId);
 
-    void deleteLike(long filmId, long userId);
+    boolean deleteLike(long filmId, long userId);
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
@@ -8,32 +10,58 @@ import ru.yandex.practicum.filmorate.model.Film;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Component
 public class InMemoryFilmStorage implements FilmStorage {
-    private final Map<Long, Film> films = new HashMap<>();
+    private final ConcurrentMap<Long, Film> films = new ConcurrentHashMap<>();
+    private final AtomicLong idSequence = new AtomicLong();
+    private final PopularityRanking ranking = new PopularityRanking();
+    private final int similarUsers;
+
+    @Autowired
+    public InMemoryFilmStorage(@Value("${filmorate.recommendations.similar-users:20}") int similarUsers) {
+        this.similarUsers = similarUsers;
+    }
 
     @Override
     public Film addFilm(Film film) {
-        film.setId(getNextIdForFilm());
         filmValidator(film);
+        film.setId(idSequence.incrementAndGet());
+        film.setLikes(concurrentCopy(film.getLikes()));
+        ranking.put(film.getId(), film.getLikes().size());
         films.put(film.getId(), film);
         log.info("Фильм {} успешно добавлен", film);
         return film;
     }
 
+    @Override
+    public List<Film> addFilms(List<Film> films) {
+        films.forEach(this::addFilm);
+        return films;
+    }
+
     @Override
     public Film updateFilm(Film updatedFilm) {
         filmValidator(updatedFilm);
 
-        if (!films.containsKey(updatedFilm.getId())) {
+        Film film = films.computeIfPresent(updatedFilm.getId(), (id, existingFilm) -> {
+            updatedFilm.setLikes(existingFilm.getLikes());
+            return updatedFilm;
+        });
+
+        if (film == null) {
             log.warn("Фильм с id {} не найден", updatedFilm.getId());
             throw new NotFoundException("Фильм не найден");
         }
 
-        films.put(updatedFilm.getId(), updatedFilm);
         log.info("Обновлен фильм с id {}: {}", updatedFilm.getId(), updatedFilm);
 
         return updatedFilm;
@@ -44,6 +72,30 @@ public class InMemoryFilmStorage implements FilmStorage {
         return new ArrayList<>(films.values());
     }
 
+    @Override
+    public List<Film> getFilmsByIds(Collection<Long> ids) {
+        return ids.stream()
+                .map(films::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Film> getFilmsPage(long afterId, int limit) {
+        return films.values().stream()
+                .filter(film -> film.getId() > afterId)
+                .sorted(Comparator.comparingLong(Film::getId))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void streamAllFilms(Consumer<Film> consumer) {
+        films.values().stream()
+                .sorted(Comparator.comparingLong(Film::getId))
+                .forEach(consumer);
+    }
+
     @Override
     public Film getFilmById(long id) {
         Film film = films.get(id);
@@ -58,33 +110,109 @@ public class InMemoryFilmStorage implements FilmStorage {
 
     @Override
     public void deleteFilmById(long filmId) {
-
         if (films.remove(filmId) == null) {
             log.warn("Фильм с id {} не найден", filmId);
             throw new NotFoundException("Фильм не найден");
         }
 
+        ranking.remove(filmId);
         log.info("Удален фильм с id {}", filmId);
     }
 
     @Override
     public List<Film> getPopularFilms(final int count) {
-        return films.values().stream()
-                .sorted(Comparator.comparing((Film film) -> film.getLikes().size()).reversed())
-                .limit(count)
+        if (count <= 0) {
+            throw new ValidationException("Количество популярных фильмов должно быть положительным числом");
+        }
+
+        return getFilmsByIds(ranking.top(count));
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count, Long genreId, Long mpaId, Integer year) {
+        if (count <= 0) {
+            throw new ValidationException("Количество популярных фильмов должно быть положительным числом");
+        }
+
+        return getFilmsByIds(ranking.top(count, filmId -> {
+            Film film = films.get(filmId);
+            return film != null
+                    && (genreId == null || film.getGenres().stream().anyMatch(genre -> genre.getId() == genreId))
+                    && (mpaId == null || film.getMpaRating().getId() == mpaId)
+                    && (year == null || film.getReleaseDate().getYear() == year);
+        }));
+    }
+
+    @Override
+    public List<Film> getRecommendedFilms(long userId, int limit) {
+        Set<Long> userFilms = films.values().stream()
+                .filter(film -> film.getLikes().contains(userId))
+                .map(Film::getId)
+                .collect(Collectors.toSet());
+
+        Map<Long, Integer> overlaps = new HashMap<>();
+        for (Long filmId : userFilms) {
+            for (Long likedUserId : films.get(filmId).getLikes()) {
+                if (likedUserId != userId) {
+                    overlaps.merge(likedUserId, 1, Integer::sum);
+                }
+            }
+        }
+
+        Map<Long, Integer> scores = new HashMap<>();
+        overlaps.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(similarUsers)
+                .forEach(similarUser -> films.values().stream()
+                        .filter(film -> !userFilms.contains(film.getId()))
+                        .filter(film -> film.getLikes().contains(similarUser.getKey()))
+                        .forEach(film -> scores.merge(film.getId(), similarUser.getValue(), Integer::sum)));
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(entry -> films.get(entry.getKey()))
                 .collect(Collectors.toList());
     }
 
     @Override
-    public void addLike(long id, long userId) {
-        films.get(id).getLikes().add(userId);
+    public boolean addLike(long id, long userId) {
+        return changeLikes(id, likes -> likes.add(userId), 1);
     }
 
     @Override
-    public void deleteLike(long id, long userId) {
-        films.get(id).getLikes().remove(userId);
+    public boolean deleteLike(long id, long userId) {
+        return changeLikes(id, likes -> likes.remove(userId), -1);
+    }
+
+    private boolean changeLikes(long id, Predicate<Set<Long>> change, long delta) {
+        AtomicBoolean changed = new AtomicBoolean();
+
+        Film film = films.computeIfPresent(id, (filmId, existingFilm) -> {
+            if (change.test(existingFilm.getLikes())) {
+                ranking.change(filmId, delta);
+                changed.set(true);
+            }
+            return existingFilm;
+        });
+
+        if (film == null) {
+            log.warn("Фильм с id {} не найден", id);
+            throw new NotFoundException("Фильм не найден");
+        }
+
+        return changed.get();
     }
 
+    private Set<Long> concurrentCopy(Set<Long> ids) {
+        Set<Long> copy = ConcurrentHashMap.newKeySet();
+        if (ids != null) {
+            copy.addAll(ids);
+        }
+        return copy;
+    }
 
     private void filmValidator(Film film) {
         if (film.getReleaseDate().isBefore(LocalDate.of(1895, 12, 28))) {
@@ -92,13 +220,4 @@ public class InMemoryFilmStorage implements FilmStorage {
             throw new ValidationException("Дата релиза не может быть раньше 28 декабря 1895 года");
         }
     }
-
-    private long getNextIdForFilm() {
-        long currentMaxId = films.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        return ++currentMaxId;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,120 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import ru.yandex.practicum.filmorate.storage.LongAdjacency;
+import ru.yandex.practicum.filmorate.storage.LongCounter;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class LikeIndex {
+    private static final int FILMS_PER_TASK = 16;
+
+    // Пользователь -> отсортированные id понравившихся фильмов, обратно фильм -> пользователи
+    private final LongAdjacency likes = new LongAdjacency();
+    private final ForkJoinPool pool;
+
+    public LikeIndex(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public void load(Map<Long, long[]> filmsByUser) {
+        likes.load(filmsByUser);
+    }
+
+    public boolean add(long filmId, long userId) {
+        return likes.add(userId, filmId);
+    }
+
+    public boolean remove(long filmId, long userId) {
+        return likes.remove(userId, filmId);
+    }
+
+    public void removeUser(long userId) {
+        likes.removeSource(userId);
+    }
+
+    public void removeFilm(long filmId) {
+        likes.removeTarget(filmId);
+    }
+
+    public void clear() {
+        likes.clear();
+    }
+
+    public int size() {
+        return likes.size();
+    }
+
+    public long[] getRecommendations(long userId, int limit, int similarUsers) {
+        long[] userFilms = likes.getTargets(userId);
+        if (userFilms.length == 0) {
+            return LongAdjacency.EMPTY;
+        }
+
+        LongCounter overlaps = pool.invoke(new OverlapTask(userId, userFilms, 0, userFilms.length));
+        long[] similarUserIds = overlaps.top(similarUsers);
+        long[][] similarUserFilms = new long[similarUserIds.length][];
+        int candidates = 0;
+        for (int i = 0; i < similarUserIds.length; i++) {
+            similarUserFilms[i] = likes.getTargets(similarUserIds[i]);
+            candidates += similarUserFilms[i].length;
+        }
+
+        // Размер счетчика задают фильмы похожих пользователей, а не запрошенный limit
+        LongCounter scores = new LongCounter(candidates);
+        for (int i = 0; i < similarUserIds.length; i++) {
+            int overlap = overlaps.get(similarUserIds[i]);
+            for (long filmId : similarUserFilms[i]) {
+                if (Arrays.binarySearch(userFilms, filmId) < 0) {
+                    scores.add(filmId, overlap);
+                }
+            }
+        }
+
+        return scores.top(limit);
+    }
+
+    // Считает для каждого пользователя число общих с userId лайков; диапазон фильмов делится пополам до FILMS_PER_TASK
+    private class OverlapTask extends RecursiveTask<LongCounter> {
+        private final long userId;
+        private final long[] films;
+        private final int from;
+        private final int to;
+
+        OverlapTask(long userId, long[] films, int from, int to) {
+            this.userId = userId;
+            this.films = films;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected LongCounter compute() {
+            if (to - from > FILMS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                OverlapTask left = new OverlapTask(userId, films, from, middle);
+                left.fork();
+                LongCounter right = new OverlapTask(userId, films, middle, to).compute();
+                LongCounter leftResult = left.join();
+                if (leftResult.size() < right.size()) {
+                    right.addAll(leftResult);
+                    return right;
+                }
+                leftResult.addAll(right);
+                return leftResult;
+            }
+
+            LongCounter overlaps = new LongCounter(64);
+            for (int i = from; i < to; i++) {
+                for (long likedUserId : likes.getSources(films[i])) {
+                    if (likedUserId != userId) {
+                        overlaps.increment(likedUserId);
+                    }
+                }
+            }
+            return overlaps;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.AdjacencyCollector;
+import ru.yandex.practicum.filmorate.storage.user.UserDeletedEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+@Slf4j
+@Component
+public class LikeIndexFilmStorage implements FilmStorage {
+    private final FilmStorage filmStorage;
+    private final JdbcTemplate jdbcTemplate;
+    private final LikeIndex index = new LikeIndex(ForkJoinPool.commonPool());
+    private final int similarUsers;
+
+    @Autowired
+    public LikeIndexFilmStorage(@Qualifier("searchFilmStorage") FilmStorage filmStorage,
+                                JdbcTemplate jdbcTemplate,
+                                @Value("${filmorate.recommendations.similar-users:20}") int similarUsers) {
+        this.filmStorage = filmStorage;
+        this.jdbcTemplate = jdbcTemplate;
+        this.similarUsers = similarUsers;
+    }
+
+    @PostConstruct
+    public void loadIndex() {
+        String sql = "SELECT user_id, film_id FROM likes ORDER BY user_id";
+
+        AdjacencyCollector collector = new AdjacencyCollector("user_id", "film_id");
+        jdbcTemplate.query(sql, collector);
+        index.load(collector.finish());
+        log.info("Индекс лайков загружен, пользователей с лайками: {}", index.size());
+    }
+
+    @Override
+    public Film addFilm(Film film) {
+        return filmStorage.addFilm(film);
+    }
+
+    @Override
+    public List<Film> addFilms(List<Film> films) {
+        return filmStorage.addFilms(films);
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        return filmStorage.updateFilm(film);
+    }
+
+    @Override
+    public Film getFilmById(long id) {
+        return filmStorage.getFilmById(id);
+    }
+
+    @Override
+    public List<Film> getAllFilms() {
+        return filmStorage.getAllFilms();
+    }
+
+    @Override
+    public List<Film> getFilmsPage(long afterId, int limit) {
+        return filmStorage.getFilmsPage(afterId, limit);
+    }
+
+    @Override
+    public void streamAllFilms(Consumer<Film> consumer) {
+        filmStorage.streamAllFilms(consumer);
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(Collection<Long> ids) {
+        return filmStorage.getFilmsByIds(ids);
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count) {
+        return filmStorage.getPopularFilms(count);
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count, Long genreId, Long mpaId, Integer year) {
+        return filmStorage.getPopularFilms(count, genreId, mpaId, year);
+    }
+
+    @Override
+    public List<Film> getRecommendedFilms(long userId, int limit) {
+        long[] filmIds = index.getRecommendations(userId, limit, similarUsers);
+
+        List<Long> ids = new ArrayList<>(filmIds.length);
+        for (long filmId : filmIds) {
+            ids.add(filmId);
+        }
+        return filmStorage.getFilmsByIds(ids);
+    }
+
+    @Override
+    public void deleteFilmById(long filmId) {
+        filmStorage.deleteFilmById(filmId);
+        index.removeFilm(filmId);
+    }
+
+    @Override
+    public boolean addLike(long filmId, long userId) {
+        // Индекс содержит все лайки, поэтому повтор отсекается без обращения к хранилищу
+        if (!index.add(filmId, userId)) {
+            return false;
+        }
+
+        boolean added = false;
+        try {
+            added = filmStorage.addLike(filmId, userId);
+            return added;
+        } finally {
+            if (!added) {
+                index.remove(filmId, userId);
+            }
+        }
+    }
+
+    @Override
+    public boolean deleteLike(long filmId, long userId) {
+        if (!index.remove(filmId, userId)) {
+            return false;
+        }
+
+        boolean deleted = false;
+        try {
+            deleted = filmStorage.deleteLike(filmId, userId);
+            return deleted;
+        } finally {
+            if (!deleted) {
+                index.add(filmId, userId);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        index.removeUser(event.userId());
+    }
+}
@@ -0,0 +1,251 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.user.UserDeletingEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Component
+public class LikeWriteBuffer {
+    private static final String INSERT_SQL = "INSERT INTO likes (film_id, user_id) " +
+            "SELECT f.film_id, u.user_id FROM films f JOIN users u ON u.user_id = ? " +
+            "WHERE f.film_id = ? " +
+            "AND NOT EXISTS (SELECT 1 FROM likes l WHERE l.film_id = f.film_id AND l.user_id = u.user_id)";
+    private static final String DELETE_SQL = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
+    private static final String COUNTER_SQL = "UPDATE films SET likes_count = likes_count + ?, version = version + 1 " +
+            "WHERE film_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration flushInterval;
+    private final int batchSize;
+    private final int capacity;
+
+    // Фильм -> пользователь -> последнее состояние лайка, ещё не записанное в базу
+    private final Map<Long, Map<Long, Boolean>> pending = new ConcurrentHashMap<>();
+    private final Semaphore permits;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private ScheduledExecutorService flusher;
+
+    @Autowired
+    public LikeWriteBuffer(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${filmorate.likes.write-behind.enabled:false}") boolean enabled,
+                           @Value("${filmorate.likes.write-behind.flush-interval:100ms}") Duration flushInterval,
+                           @Value("${filmorate.likes.write-behind.batch-size:500}") int batchSize,
+                           @Value("${filmorate.likes.write-behind.capacity:10000}") int capacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Сброс не присоединяется к транзакции вызывающего: записи удаляются из буфера сразу после коммита,
+        // и откат чужой транзакции не должен их потерять
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.flushInterval = flushInterval;
+        this.batchSize = batchSize;
+        this.capacity = capacity;
+        this.permits = new Semaphore(capacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "like-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushInterval.toMillis(), flushInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        log.info("Отложенная запись лайков включена: интервал {} мс, пакет {}, ёмкость {}",
+                flushInterval.toMillis(), batchSize, capacity);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+
+        flusher.shutdown();
+        flusher.awaitTermination(flushInterval.toMillis() * 10, TimeUnit.MILLISECONDS);
+        flush();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int size() {
+        return capacity - permits.availablePermits();
+    }
+
+    // Возвращает false, если лайк уже ожидает записи в том же состоянии
+    public boolean put(long filmId, long userId, boolean liked) {
+        reserve();
+
+        boolean[] result = new boolean[2];
+        pending.compute(filmId, (id, users) -> {
+            Map<Long, Boolean> filmLikes = users == null ? new ConcurrentHashMap<>() : users;
+            Boolean previous = filmLikes.put(userId, liked);
+            result[0] = previous == null;
+            result[1] = previous == null || previous != liked;
+            return filmLikes;
+        });
+
+        if (!result[0]) {
+            permits.release();
+        }
+        if (flusher != null && size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+        return result[1];
+    }
+
+    public void apply(Film film) {
+        Map<Long, Boolean> users = pending.get(film.getId());
+        if (users == null) {
+            return;
+        }
+
+        users.forEach((userId, liked) -> {
+            if (liked) {
+                film.getLikes().add(userId);
+            } else {
+                film.getLikes().remove(userId);
+            }
+        });
+        // Пока лайки не записаны, версия из базы не описывает фильм, и ETag для него не выдаётся
+        film.setVersion(0);
+    }
+
+    public void apply(List<Film> films) {
+        if (!pending.isEmpty()) {
+            films.forEach(this::apply);
+        }
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            List<PendingLike> likes = snapshot();
+            if (likes.isEmpty()) {
+                return;
+            }
+
+            transactionTemplate.executeWithoutResult(status -> write(likes));
+            release(likes);
+            log.debug("Записано отложенных лайков: {}", likes.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Отложенные лайки пользователя должны попасть в таблицу до того, как по ней соберут список и пересчитают счётчики
+    @EventListener
+    public void onUserDeleting(UserDeletingEvent event) {
+        flush();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Не удалось записать отложенные лайки, повтор при следующей записи: {}", e.getMessage(), e);
+        }
+    }
+
+    // Переполненный буфер разгружается вызывающим потоком: запись лайков замедляется до скорости базы
+    private void reserve() {
+        if (permits.tryAcquire()) {
+            return;
+        }
+
+        flush();
+        permits.acquireUninterruptibly();
+    }
+
+    private List<PendingLike> snapshot() {
+        List<PendingLike> likes = new ArrayList<>();
+        pending.forEach((filmId, users) ->
+                users.forEach((userId, liked) -> likes.add(new PendingLike(filmId, userId, liked))));
+        return likes;
+    }
+
+    private void write(List<PendingLike> likes) {
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        List<PendingLike> insertedLikes = new ArrayList<>();
+        List<PendingLike> deletedLikes = new ArrayList<>();
+        for (PendingLike like : likes) {
+            if (like.liked()) {
+                inserts.add(new Object[]{like.userId(), like.filmId()});
+                insertedLikes.add(like);
+            } else {
+                deletes.add(new Object[]{like.filmId(), like.userId()});
+                deletedLikes.add(like);
+            }
+        }
+
+        // Счётчики меняются только на реально вставленные и удалённые строки
+        Map<Long, Long> deltas = new HashMap<>();
+        collectDeltas(jdbcTemplate.batchUpdate(INSERT_SQL, inserts), insertedLikes, 1, deltas);
+        collectDeltas(jdbcTemplate.batchUpdate(DELETE_SQL, deletes), deletedLikes, -1, deltas);
+
+        // Версия растёт и при нулевой разнице: состав лайков всё равно поменялся
+        List<Object[]> counters = new ArrayList<>();
+        deltas.forEach((filmId, delta) -> counters.add(new Object[]{delta, filmId}));
+        jdbcTemplate.batchUpdate(COUNTER_SQL, counters);
+    }
+
+    private void collectDeltas(int[] updated, List<PendingLike> likes, int sign, Map<Long, Long> deltas) {
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] > 0) {
+                deltas.merge(likes.get(i).filmId(), (long) sign, Long::sum);
+            }
+        }
+    }
+
+    // Запись удаляется, только если за время сброса лайк не поменяли ещё раз
+    private void release(List<PendingLike> likes) {
+        for (PendingLike like : likes) {
+            pending.computeIfPresent(like.filmId(), (id, users) -> {
+                if (users.remove(like.userId(), like.liked())) {
+                    permits.release();
+                }
+                return users.isEmpty() ? null : users;
+            });
+        }
+    }
+
+    private record PendingLike(long filmId, long userId, boolean liked) {
+    }
+}
@@ -0,0 +1,137 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+// Общий компонент: по нему же слой отложенной записи лайков проверяет, что фильм существует
+@Component
+public class PartitionedPopularityRanking {
+    private final PopularityRanking ranking = new PopularityRanking();
+    private final Map<Long, PopularityRanking> byGenre = new ConcurrentHashMap<>();
+    private final Map<Long, PopularityRanking> byMpa = new ConcurrentHashMap<>();
+    private final Map<Long, Attributes> attributes = new ConcurrentHashMap<>();
+
+    // Все изменения одного фильма идут под блокировкой его ключа в attributes, поэтому лайк,
+    // пришедший во время смены жанров, не теряется и не попадает в старые партиции
+    public void put(long filmId, long mpaId, long[] genreIds, int year, long likesCount) {
+        Attributes updated = new Attributes(mpaId, genreIds, year);
+        attributes.compute(filmId, (id, previous) -> {
+            if (previous != null) {
+                partitions(previous).forEach(partition -> partition.remove(filmId));
+            }
+            ranking.put(filmId, likesCount);
+            addToPartitions(filmId, updated, likesCount);
+            return updated;
+        });
+    }
+
+    // Меняет жанры, рейтинг и год фильма. Общий рейтинг не трогается, в партиции переносится текущее число лайков
+    public void update(long filmId, long mpaId, long[] genreIds, int year) {
+        Attributes updated = new Attributes(mpaId, genreIds, year);
+        attributes.compute(filmId, (id, previous) -> {
+            if (previous != null) {
+                partitions(previous).forEach(partition -> partition.remove(filmId));
+            } else {
+                // Фильма ещё нет в рейтинге
+                ranking.put(filmId, 0);
+            }
+            addToPartitions(filmId, updated, ranking.getLikes(filmId));
+            return updated;
+        });
+    }
+
+    public void change(long filmId, long delta) {
+        attributes.compute(filmId, (id, filmAttributes) -> {
+            ranking.change(filmId, delta);
+            if (filmAttributes != null) {
+                partitions(filmAttributes).forEach(partition -> partition.change(filmId, delta));
+            }
+            return filmAttributes;
+        });
+    }
+
+    public void remove(long filmId) {
+        attributes.compute(filmId, (id, filmAttributes) -> {
+            ranking.remove(filmId);
+            if (filmAttributes != null) {
+                partitions(filmAttributes).forEach(partition -> partition.remove(filmId));
+            }
+            return null;
+        });
+    }
+
+    public void clear() {
+        ranking.clear();
+        byGenre.clear();
+        byMpa.clear();
+        attributes.clear();
+    }
+
+    public boolean contains(long filmId) {
+        return attributes.containsKey(filmId);
+    }
+
+    public long getLikes(long filmId) {
+        return ranking.getLikes(filmId);
+    }
+
+    public int size() {
+        return ranking.size();
+    }
+
+    public List<Long> top(int count) {
+        return ranking.top(count);
+    }
+
+    public List<Long> top(int count, Long genreId, Long mpaId, Integer year) {
+        // Берется самая узкая из готовых партиций, остальные фильтры проверяются при обходе
+        PopularityRanking partition = ranking;
+        if (genreId != null) {
+            partition = byGenre.get(genreId);
+        } else if (mpaId != null) {
+            partition = byMpa.get(mpaId);
+        }
+        if (partition == null) {
+            return Collections.emptyList();
+        }
+
+        LongPredicate filter = filmId -> {
+            Attributes filmAttributes = attributes.get(filmId);
+            return filmAttributes != null
+                    && (mpaId == null || filmAttributes.mpaId() == mpaId)
+                    && (year == null || filmAttributes.year() == year);
+        };
+        return partition.top(count, filter);
+    }
+
+    private void addToPartitions(long filmId, Attributes filmAttributes, long likesCount) {
+        byMpa.computeIfAbsent(filmAttributes.mpaId(), id -> new PopularityRanking()).put(filmId, likesCount);
+        for (long genreId : filmAttributes.genreIds()) {
+            byGenre.computeIfAbsent(genreId, id -> new PopularityRanking()).put(filmId, likesCount);
+        }
+    }
+
+    private List<PopularityRanking> partitions(Attributes filmAttributes) {
+        List<PopularityRanking> partitions = new ArrayList<>(filmAttributes.genreIds().length + 1);
+        PopularityRanking mpaPartition = byMpa.get(filmAttributes.mpaId());
+        if (mpaPartition != null) {
+            partitions.add(mpaPartition);
+        }
+        for (long genreId : filmAttributes.genreIds()) {
+            PopularityRanking genrePartition = byGenre.get(genreId);
+            if (genrePartition != null) {
+                partitions.add(genrePartition);
+            }
+        }
+        return partitions;
+    }
+
+    private record Attributes(long mpaId, long[] genreIds, int year) {
+    }
+}
@@ -0,0 +1,189 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.AdjacencyCollector;
+import ru.yandex.practicum.filmorate.storage.LongAdjacency;
+import ru.yandex.practicum.filmorate.storage.user.UserDeletedEvent;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+@Slf4j
+@Component
+public class PopularFilmStorage implements FilmStorage {
+    private final FilmStorage filmStorage;
+    private final JdbcTemplate jdbcTemplate;
+    private final PartitionedPopularityRanking ranking;
+    // Растёт после каждого изменения, которое может поменять список популярных фильмов
+    private final AtomicLong catalogVersion = new AtomicLong();
+
+    @Autowired
+    public PopularFilmStorage(@Qualifier("cachingFilmStorage") FilmStorage filmStorage,
+                              JdbcTemplate jdbcTemplate,
+                              PartitionedPopularityRanking ranking) {
+        this.filmStorage = filmStorage;
+        this.jdbcTemplate = jdbcTemplate;
+        this.ranking = ranking;
+    }
+
+    @PostConstruct
+    public void loadRanking() {
+        String genresSql = "SELECT film_id, genre_id FROM film_genres ORDER BY film_id";
+        AdjacencyCollector collector = new AdjacencyCollector("film_id", "genre_id");
+        jdbcTemplate.query(genresSql, collector);
+        Map<Long, long[]> genresByFilm = collector.finish();
+
+        String sql = "SELECT film_id, mpa_rating_id, release_date, likes_count FROM films";
+        ranking.clear();
+        jdbcTemplate.query(sql, rs -> {
+            long filmId = rs.getLong("film_id");
+            ranking.put(filmId,
+                    rs.getLong("mpa_rating_id"),
+                    genresByFilm.getOrDefault(filmId, LongAdjacency.EMPTY),
+                    rs.getDate("release_date").toLocalDate().getYear(),
+                    rs.getLong("likes_count"));
+        });
+        catalogVersion.incrementAndGet();
+        log.info("Рейтинг популярности загружен, фильмов: {}", ranking.size());
+    }
+
+    public long getCatalogVersion() {
+        return catalogVersion.get();
+    }
+
+    public long getLikesCount(long filmId) {
+        return ranking.getLikes(filmId);
+    }
+
+    @Override
+    public Film addFilm(Film film) {
+        Film addedFilm = filmStorage.addFilm(film);
+        put(addedFilm);
+        catalogVersion.incrementAndGet();
+        return addedFilm;
+    }
+
+    @Override
+    public List<Film> addFilms(List<Film> films) {
+        List<Film> addedFilms = filmStorage.addFilms(films);
+        addedFilms.forEach(this::put);
+        catalogVersion.incrementAndGet();
+        return addedFilms;
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        Film updatedFilm = filmStorage.updateFilm(film);
+        ranking.update(updatedFilm.getId(), updatedFilm.getMpaRating().getId(), genreIds(updatedFilm),
+                updatedFilm.getReleaseDate().getYear());
+        catalogVersion.incrementAndGet();
+        return updatedFilm;
+    }
+
+    @Override
+    public Film getFilmById(long id) {
+        return filmStorage.getFilmById(id);
+    }
+
+    @Override
+    public List<Film> getAllFilms() {
+        return filmStorage.getAllFilms();
+    }
+
+    @Override
+    public List<Film> getFilmsPage(long afterId, int limit) {
+        return filmStorage.getFilmsPage(afterId, limit);
+    }
+
+    @Override
+    public void streamAllFilms(Consumer<Film> consumer) {
+        filmStorage.streamAllFilms(consumer);
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(Collection<Long> ids) {
+        return filmStorage.getFilmsByIds(ids);
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count) {
+        if (count <= 0) {
+            throw new ValidationException("Количество популярных фильмов должно быть положительным числом");
+        }
+
+        return filmStorage.getFilmsByIds(ranking.top(count));
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count, Long genreId, Long mpaId, Integer year) {
+        if (count <= 0) {
+            throw new ValidationException("Количество популярных фильмов должно быть положительным числом");
+        }
+
+        return filmStorage.getFilmsByIds(ranking.top(count, genreId, mpaId, year));
+    }
+
+    @Override
+    public List<Film> getRecommendedFilms(long userId, int limit) {
+        return filmStorage.getRecommendedFilms(userId, limit);
+    }
+
+    @Override
+    public void deleteFilmById(long filmId) {
+        filmStorage.deleteFilmById(filmId);
+        ranking.remove(filmId);
+        catalogVersion.incrementAndGet();
+    }
+
+    @Override
+    public boolean addLike(long filmId, long userId) {
+        boolean added = filmStorage.addLike(filmId, userId);
+        if (added) {
+            ranking.change(filmId, 1);
+            catalogVersion.incrementAndGet();
+        }
+        return added;
+    }
+
+    @Override
+    public boolean deleteLike(long filmId, long userId) {
+        boolean deleted = filmStorage.deleteLike(filmId, userId);
+        if (deleted) {
+            ranking.change(filmId, -1);
+            catalogVersion.incrementAndGet();
+        }
+        return deleted;
+    }
+
+    // После сброса кэша фильмов: иначе новую версию каталога можно получить вместе с фильмами из старого кэша
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        event.likedFilmIds().forEach(filmId -> ranking.change(filmId, -1));
+        catalogVersion.incrementAndGet();
+    }
+
+    private void put(Film film) {
+        ranking.put(film.getId(), film.getMpaRating().getId(), genreIds(film), film.getReleaseDate().getYear(), 0);
+    }
+
+    private long[] genreIds(Film film) {
+        return film.getGenres().stream()
+                .mapToLong(Genre::getId)
+                .toArray();
+    }
+}
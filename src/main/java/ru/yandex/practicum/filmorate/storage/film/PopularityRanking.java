@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.LongPredicate;
+
+public class PopularityRanking {
+    private static final Comparator<Entry> ORDER = Comparator.comparingLong(Entry::likes).reversed()
+            .thenComparingLong(Entry::filmId);
+
+    private final ConcurrentMap<Long, Long> likes = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>(ORDER);
+
+    public void put(long filmId, long likesCount) {
+        likes.compute(filmId, (id, oldCount) -> move(id, oldCount, likesCount));
+    }
+
+    public void change(long filmId, long delta) {
+        likes.computeIfPresent(filmId, (id, oldCount) -> move(id, oldCount, oldCount + delta));
+    }
+
+    public void remove(long filmId) {
+        likes.computeIfPresent(filmId, (id, oldCount) -> {
+            entries.remove(new Entry(id, oldCount));
+            return null;
+        });
+    }
+
+    public void clear() {
+        likes.clear();
+        entries.clear();
+    }
+
+    public long getLikes(long filmId) {
+        return likes.getOrDefault(filmId, 0L);
+    }
+
+    public int size() {
+        return likes.size();
+    }
+
+    public List<Long> top(int count) {
+        return top(count, filmId -> true);
+    }
+
+    public List<Long> top(int count, LongPredicate filter) {
+        // При перемещении фильм на мгновение может присутствовать дважды, поэтому id дедуплицируются
+        Set<Long> filmIds = new LinkedHashSet<>();
+        Iterator<Entry> iterator = entries.iterator();
+
+        while (filmIds.size() < count && iterator.hasNext()) {
+            long filmId = iterator.next().filmId();
+            if (filter.test(filmId)) {
+                filmIds.add(filmId);
+            }
+        }
+
+        return new ArrayList<>(filmIds);
+    }
+
+    private Long move(long filmId, Long oldCount, long newCount) {
+        entries.add(new Entry(filmId, newCount));
+        if (oldCount != null && oldCount != newCount) {
+            entries.remove(new Entry(filmId, oldCount));
+        }
+        return newCount;
+    }
+
+    private record Entry(long filmId, long likes) {
+    }
+}
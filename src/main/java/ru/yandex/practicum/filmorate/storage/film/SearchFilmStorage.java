@@ -0,0 +1,132 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Slf4j
+@Component
+public class SearchFilmStorage implements FilmStorage {
+    private final FilmStorage filmStorage;
+    // Число лайков для ранжирования результатов поиска берётся из рейтинга популярных
+    private final PopularFilmStorage popularFilmStorage;
+    private final JdbcTemplate jdbcTemplate;
+    private final FilmSearchIndex index = new FilmSearchIndex();
+
+    @Autowired
+    public SearchFilmStorage(@Qualifier("popularFilmStorage") FilmStorage filmStorage,
+                             PopularFilmStorage popularFilmStorage,
+                             JdbcTemplate jdbcTemplate) {
+        this.filmStorage = filmStorage;
+        this.popularFilmStorage = popularFilmStorage;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void loadIndex() {
+        String sql = "SELECT film_id, name, description FROM films";
+
+        index.clear();
+        jdbcTemplate.query(sql, rs -> {
+            index.put(rs.getLong("film_id"), rs.getString("name"), rs.getString("description"));
+        });
+        log.info("Поисковый индекс загружен, фильмов: {}", index.size());
+    }
+
+    @Override
+    public Film addFilm(Film film) {
+        Film addedFilm = filmStorage.addFilm(film);
+        index.put(addedFilm.getId(), addedFilm.getName(), addedFilm.getDescription());
+        return addedFilm;
+    }
+
+    @Override
+    public List<Film> addFilms(List<Film> films) {
+        List<Film> addedFilms = filmStorage.addFilms(films);
+        addedFilms.forEach(film -> index.put(film.getId(), film.getName(), film.getDescription()));
+        return addedFilms;
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        Film updatedFilm = filmStorage.updateFilm(film);
+        index.put(updatedFilm.getId(), updatedFilm.getName(), updatedFilm.getDescription());
+        return updatedFilm;
+    }
+
+    @Override
+    public Film getFilmById(long id) {
+        return filmStorage.getFilmById(id);
+    }
+
+    @Override
+    public List<Film> getAllFilms() {
+        return filmStorage.getAllFilms();
+    }
+
+    @Override
+    public List<Film> getFilmsPage(long afterId, int limit) {
+        return filmStorage.getFilmsPage(afterId, limit);
+    }
+
+    @Override
+    public void streamAllFilms(Consumer<Film> consumer) {
+        filmStorage.streamAllFilms(consumer);
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(Collection<Long> ids) {
+        return filmStorage.getFilmsByIds(ids);
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count) {
+        return filmStorage.getPopularFilms(count);
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count, Long genreId, Long mpaId, Integer year) {
+        return filmStorage.getPopularFilms(count, genreId, mpaId, year);
+    }
+
+    @Override
+    public List<Film> getRecommendedFilms(long userId, int limit) {
+        return filmStorage.getRecommendedFilms(userId, limit);
+    }
+
+    // Поиск есть только у этого хранилища: без индекса он свёлся бы к полному просмотру таблицы
+    public List<Film> searchFilms(String query, boolean byTitle, boolean byDescription, int limit) {
+        long[] filmIds = index.search(query, byTitle, byDescription, limit, popularFilmStorage::getLikesCount);
+
+        List<Long> ids = new ArrayList<>(filmIds.length);
+        for (long filmId : filmIds) {
+            ids.add(filmId);
+        }
+        return filmStorage.getFilmsByIds(ids);
+    }
+
+    @Override
+    public void deleteFilmById(long filmId) {
+        filmStorage.deleteFilmById(filmId);
+        index.remove(filmId);
+    }
+
+    @Override
+    public boolean addLike(long filmId, long userId) {
+        return filmStorage.addLike(filmId, userId);
+    }
+
+    @Override
+    public boolean deleteLike(long filmId, long userId) {
+        return filmStorage.deleteLike(filmId, userId);
+    }
+}
@@ -0,0 +1,146 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.user.CachingUserStorage;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Лайки уходят в буфер и пишутся пачками; при чтении незаписанные лайки накладываются на фильмы из базы.
+// Решение о том, новый ли лайк, принимает индекс лайков выше по цепочке
+@Component
+public class WriteBehindFilmStorage implements FilmStorage {
+    private static final String FILM_EXISTS_SQL = "SELECT COUNT(*) FROM films WHERE film_id = ?";
+    private static final String USER_EXISTS_SQL = "SELECT COUNT(*) FROM users WHERE user_id = ?";
+
+    private final FilmStorage filmStorage;
+    private final LikeWriteBuffer buffer;
+    private final JdbcTemplate jdbcTemplate;
+    private final PartitionedPopularityRanking ranking;
+    private final CachingUserStorage userCache;
+
+    @Autowired
+    public WriteBehindFilmStorage(@Qualifier("filmDbStorage") FilmStorage filmStorage,
+                                  LikeWriteBuffer buffer,
+                                  JdbcTemplate jdbcTemplate,
+                                  PartitionedPopularityRanking ranking,
+                                  CachingUserStorage userCache) {
+        this.filmStorage = filmStorage;
+        this.buffer = buffer;
+        this.jdbcTemplate = jdbcTemplate;
+        this.ranking = ranking;
+        this.userCache = userCache;
+    }
+
+    @Override
+    public Film addFilm(Film film) {
+        return filmStorage.addFilm(film);
+    }
+
+    @Override
+    public List<Film> addFilms(List<Film> films) {
+        return filmStorage.addFilms(films);
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        Film updatedFilm = filmStorage.updateFilm(film);
+        buffer.apply(updatedFilm);
+        return updatedFilm;
+    }
+
+    @Override
+    public Film getFilmById(long id) {
+        Film film = filmStorage.getFilmById(id);
+        buffer.apply(film);
+        return film;
+    }
+
+    @Override
+    public List<Film> getAllFilms() {
+        return apply(filmStorage.getAllFilms());
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(Collection<Long> ids) {
+        return apply(filmStorage.getFilmsByIds(ids));
+    }
+
+    @Override
+    public List<Film> getFilmsPage(long afterId, int limit) {
+        return apply(filmStorage.getFilmsPage(afterId, limit));
+    }
+
+    @Override
+    public void streamAllFilms(Consumer<Film> consumer) {
+        filmStorage.streamAllFilms(film -> {
+            buffer.apply(film);
+            consumer.accept(film);
+        });
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count) {
+        return apply(filmStorage.getPopularFilms(count));
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count, Long genreId, Long mpaId, Integer year) {
+        return apply(filmStorage.getPopularFilms(count, genreId, mpaId, year));
+    }
+
+    @Override
+    public List<Film> getRecommendedFilms(long userId, int limit) {
+        return apply(filmStorage.getRecommendedFilms(userId, limit));
+    }
+
+    @Override
+    public void deleteFilmById(long filmId) {
+        filmStorage.deleteFilmById(filmId);
+    }
+
+    @Override
+    public boolean addLike(long filmId, long userId) {
+        if (buffer.isEnabled()) {
+            checkExists(filmId, userId);
+            return buffer.put(filmId, userId, true);
+        }
+        return filmStorage.addLike(filmId, userId);
+    }
+
+    @Override
+    public boolean deleteLike(long filmId, long userId) {
+        if (buffer.isEnabled()) {
+            checkExists(filmId, userId);
+            return buffer.put(filmId, userId, false);
+        }
+        return filmStorage.deleteLike(filmId, userId);
+    }
+
+    // Отложенную запись база отклонит слишком поздно, поэтому фильм и пользователь проверяются сразу:
+    // по рейтингу популярных и кэшу пользователей, а в базу запрос идёт только при промахе
+    private void checkExists(long filmId, long userId) {
+        if (!ranking.contains(filmId) && !exists(FILM_EXISTS_SQL, filmId)) {
+            throw new NotFoundException("Фильм с id " + filmId + " не найден");
+        }
+        if (userCache.getCache().getIfPresent(userId) == null && !exists(USER_EXISTS_SQL, userId)) {
+            throw new NotFoundException("Пользователь с id " + userId + " не найден");
+        }
+    }
+
+    private boolean exists(String sql, long id) {
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, id);
+        return count != null && count > 0;
+    }
+
+    private List<Film> apply(List<Film> films) {
+        buffer.apply(films);
+        return films;
+    }
+}
@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.storage.reference;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.storage.MpaRating.MpaRatingStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReferenceDataRegistry {
+    private final GenreStorage genreStorage;
+    private final MpaRatingStorage mpaRatingStorage;
+
+    private final AtomicLong versions = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    @PostConstruct
+    public void refresh() {
+        List<Genre> genres = List.copyOf(genreStorage.getAllGenres());
+        List<MpaRating> mpaRatings = List.copyOf(mpaRatingStorage.getAllMpaRatings());
+
+        Genre[] genresById = new Genre[(int) genres.stream().mapToLong(Genre::getId).max().orElse(0) + 1];
+        genres.forEach(genre -> genresById[(int) genre.getId()] = genre);
+
+        MpaRating[] mpaRatingsById =
+                new MpaRating[(int) mpaRatings.stream().mapToLong(MpaRating::getId).max().orElse(0) + 1];
+        mpaRatings.forEach(mpaRating -> mpaRatingsById[(int) mpaRating.getId()] = mpaRating);
+
+        snapshot = new Snapshot(genres, genresById, mpaRatings, mpaRatingsById, versions.incrementAndGet());
+        log.info("Справочники загружены: жанров {}, рейтингов MPA {}", genres.size(), mpaRatings.size());
+    }
+
+    public long getVersion() {
+        return snapshot.version();
+    }
+
+    public List<Genre> getAllGenres() {
+        return snapshot.genres();
+    }
+
+    public Genre findGenre(long id) {
+        Genre[] genresById = snapshot.genresById();
+        return id > 0 && id < genresById.length ? genresById[(int) id] : null;
+    }
+
+    public Genre getGenreById(long id) {
+        Genre genre = findGenre(id);
+
+        if (genre == null) {
+            log.warn("Жанр с id {} не найден в базе данных.", id);
+            throw new NotFoundException("Жанр с id " + id + " не найден.");
+        }
+
+        return genre;
+    }
+
+    public List<MpaRating> getAllMpaRatings() {
+        return snapshot.mpaRatings();
+    }
+
+    public MpaRating findMpaRating(long id) {
+        MpaRating[] mpaRatingsById = snapshot.mpaRatingsById();
+        return id > 0 && id < mpaRatingsById.length ? mpaRatingsById[(int) id] : null;
+    }
+
+    public MpaRating getMpaRatingById(long id) {
+        if (id <= 0) {
+            throw new ValidationException("Передан некорректный id MPA рейтинга");
+        }
+
+        MpaRating mpaRating = findMpaRating(id);
+
+        if (mpaRating == null) {
+            throw new NotFoundException("Рейтинг с id " + id + " не найден");
+        }
+
+        return mpaRating;
+    }
+
+    private record Snapshot(List<Genre> genres, Genre[] genresById,
+                            List<MpaRating> mpaRatings, MpaRating[] mpaRatingsById, long version) {
+    }
+}
@@ -0,0 +1,171 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Component
+public class CachingUserStorage implements UserStorage {
+    private final UserStorage userStorage;
+    private final Cache<Long, User> users;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public CachingUserStorage(@Qualifier("userDbStorage") UserStorage userStorage,
+                              @Value("${filmorate.cache.max-size:10000}") long maxSize,
+                              @Value("${filmorate.cache.ttl:10m}") Duration ttl) {
+        this.userStorage = userStorage;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Cache<Long, User> getCache() {
+        return users;
+    }
+
+    public CacheStats getCacheStats() {
+        return users.stats();
+    }
+
+    @Override
+    public User addUser(User user) {
+        return userStorage.addUser(user);
+    }
+
+    @Override
+    public User updateUser(User user) {
+        try {
+            return userStorage.updateUser(user);
+        } finally {
+            invalidate(List.of(user.getId()));
+        }
+    }
+
+    @Override
+    public User getUserById(long id) {
+        return copy(users.get(id, userStorage::getUserById));
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return userStorage.getAllUsers();
+    }
+
+    @Override
+    public List<User> getUsersByIds(Collection<Long> ids) {
+        // getAll не ждёт параллельного invalidate, поэтому загруженные пачкой пользователи кладутся в кэш по одному
+        // и только если с начала загрузки не было ни одной инвалидации
+        long generation = invalidations.get();
+        Map<Long, User> foundUsers = new HashMap<>(users.getAllPresent(ids));
+        List<Long> missingIds = ids.stream()
+                .filter(id -> !foundUsers.containsKey(id))
+                .distinct()
+                .collect(Collectors.toList());
+        if (!missingIds.isEmpty()) {
+            userStorage.getUsersByIds(missingIds).forEach(user -> {
+                foundUsers.put(user.getId(), user);
+                users.asMap().compute(user.getId(), (id, cached) ->
+                        cached == null && invalidations.get() == generation ? user : cached);
+            });
+        }
+
+        return ids.stream()
+                .map(foundUsers::get)
+                .filter(Objects::nonNull)
+                .map(CachingUserStorage::copy)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<User> getUsersPage(long afterId, int limit) {
+        return userStorage.getUsersPage(afterId, limit);
+    }
+
+    @Override
+    public void streamAllUsers(Consumer<User> consumer) {
+        userStorage.streamAllUsers(consumer);
+    }
+
+    @Override
+    public void deleteUserById(Long userId) {
+        try {
+            userStorage.deleteUserById(userId);
+        } finally {
+            invalidate(List.of(userId));
+        }
+    }
+
+    @Override
+    public void addFriend(long userId, long friendId) {
+        userStorage.addFriend(userId, friendId);
+        invalidate(List.of(userId, friendId));
+    }
+
+    @Override
+    public void confirmFriendship(long userId, long friendId) {
+        userStorage.confirmFriendship(userId, friendId);
+        invalidate(List.of(userId, friendId));
+    }
+
+    @Override
+    public void deleteFriend(long userId, long friendId) {
+        try {
+            userStorage.deleteFriend(userId, friendId);
+        } finally {
+            invalidate(List.of(userId, friendId));
+        }
+    }
+
+    @Override
+    public Set<User> getFriends(long userId) {
+        return userStorage.getFriends(userId);
+    }
+
+    @Override
+    public Map<Long, Set<User>> getFriendsByUserIds(Collection<Long> userIds) {
+        return userStorage.getFriendsByUserIds(userIds);
+    }
+
+    @Override
+    public Set<User> getCommonFriends(long userId, long otherId) {
+        return userStorage.getCommonFriends(userId, otherId);
+    }
+
+    @Override
+    public List<User> getFriendRecommendations(long userId, int limit) {
+        return userStorage.getFriendRecommendations(userId, limit);
+    }
+
+    // Счётчик растёт до удаления из кэша, чтобы пакетная загрузка, начатая раньше, не вернула старую запись
+    private void invalidate(Collection<Long> ids) {
+        invalidations.incrementAndGet();
+        users.invalidateAll(ids);
+    }
+
+    // Наружу отдаётся копия: вызывающий код меняет пользователя на месте, и это не должно портить кэш
+    private static User copy(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setEmail(user.getEmail());
+        copy.setLogin(user.getLogin());
+        copy.setName(user.getName());
+        copy.setBirthday(user.getBirthday());
+        copy.setFriends(new HashSet<>(user.getFriends()));
+        copy.setVersion(user.getVersion());
+        return copy;
+    }
+}
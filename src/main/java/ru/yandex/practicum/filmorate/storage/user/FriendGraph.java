@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import ru.yandex.practicum.filmorate.storage.LongAdjacency;
+import ru.yandex.practicum.filmorate.storage.LongCounter;
+
+import java.util.Arrays;
+import java.util.Map;
+
+public class FriendGraph {
+    private final LongAdjacency friends = new LongAdjacency();
+
+    public void load(Map<Long, long[]> adjacency) {
+        friends.load(adjacency);
+    }
+
+    public boolean add(long userId, long friendId) {
+        return friends.add(userId, friendId);
+    }
+
+    public boolean remove(long userId, long friendId) {
+        return friends.remove(userId, friendId);
+    }
+
+    public void removeUser(long userId) {
+        friends.removeSource(userId);
+        friends.removeTarget(userId);
+    }
+
+    public void clear() {
+        friends.clear();
+    }
+
+    public long[] getFriends(long userId) {
+        return friends.getTargets(userId).clone();
+    }
+
+    public int size() {
+        return friends.size();
+    }
+
+    public long[] getCommonFriends(long userId, long otherId) {
+        return LongAdjacency.intersect(friends.getTargets(userId), friends.getTargets(otherId));
+    }
+
+    // На каждом шаге просматривается не больше maxFanOut соседей, после дедлайна — результат по уже обойденной части
+    public long[] getRecommendations(long userId, int limit, int maxFanOut, long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        long[] userFriends = friends.getTargets(userId);
+        int firstHop = Math.min(userFriends.length, maxFanOut);
+        LongCounter mutualFriends = new LongCounter(firstHop * 8);
+
+        for (int i = 0; i < firstHop; i++) {
+            if (System.nanoTime() > deadline) {
+                break;
+            }
+            long[] candidates = friends.getTargets(userFriends[i]);
+            int secondHop = Math.min(candidates.length, maxFanOut);
+            for (int j = 0; j < secondHop; j++) {
+                long candidate = candidates[j];
+                if (candidate != userId && Arrays.binarySearch(userFriends, candidate) < 0) {
+                    mutualFriends.increment(candidate);
+                }
+            }
+        }
+
+        return mutualFriends.top(limit);
+    }
+}
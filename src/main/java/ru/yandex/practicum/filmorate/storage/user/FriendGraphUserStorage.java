@@ -0,0 +1,196 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.AdjacencyCollector;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+@Slf4j
+@Component
+public class FriendGraphUserStorage implements UserStorage {
+    private static final int LOCK_STRIPES = 64;
+
+    private final UserStorage userStorage;
+    private final JdbcTemplate jdbcTemplate;
+    private final FriendGraph graph = new FriendGraph();
+    private final int recommendationsMaxFanOut;
+    private final Duration recommendationsTimeout;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    @Autowired
+    public FriendGraphUserStorage(@Qualifier("cachingUserStorage") UserStorage userStorage,
+                                  JdbcTemplate jdbcTemplate,
+                                  @Value("${filmorate.friends.recommendations.max-fan-out:1000}") int recommendationsMaxFanOut,
+                                  @Value("${filmorate.friends.recommendations.timeout:50ms}") Duration recommendationsTimeout) {
+        this.userStorage = userStorage;
+        this.jdbcTemplate = jdbcTemplate;
+        this.recommendationsMaxFanOut = recommendationsMaxFanOut;
+        this.recommendationsTimeout = recommendationsTimeout;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @PostConstruct
+    public void loadGraph() {
+        String sql = "SELECT user_id, friend_id FROM friendships ORDER BY user_id";
+
+        AdjacencyCollector collector = new AdjacencyCollector("user_id", "friend_id");
+        jdbcTemplate.query(sql, collector);
+        graph.load(collector.finish());
+        log.info("Граф дружбы загружен, пользователей с друзьями: {}", graph.size());
+    }
+
+    @Override
+    public User addUser(User user) {
+        return userStorage.addUser(user);
+    }
+
+    @Override
+    public User updateUser(User user) {
+        return userStorage.updateUser(user);
+    }
+
+    @Override
+    public User getUserById(long id) {
+        return userStorage.getUserById(id);
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return userStorage.getAllUsers();
+    }
+
+    @Override
+    public List<User> getUsersByIds(Collection<Long> ids) {
+        return userStorage.getUsersByIds(ids);
+    }
+
+    @Override
+    public List<User> getUsersPage(long afterId, int limit) {
+        return userStorage.getUsersPage(afterId, limit);
+    }
+
+    @Override
+    public void streamAllUsers(Consumer<User> consumer) {
+        userStorage.streamAllUsers(consumer);
+    }
+
+    @Override
+    public void deleteUserById(Long userId) {
+        userStorage.deleteUserById(userId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        graph.removeUser(event.userId());
+    }
+
+    @Override
+    public void addFriend(long userId, long friendId) {
+        withEdgeLocked(userId, friendId, () -> {
+            userStorage.addFriend(userId, friendId);
+            graph.add(userId, friendId);
+        });
+    }
+
+    @Override
+    public void confirmFriendship(long userId, long friendId) {
+        userStorage.confirmFriendship(userId, friendId);
+    }
+
+    @Override
+    public void deleteFriend(long userId, long friendId) {
+        withEdgeLocked(userId, friendId, () -> {
+            userStorage.deleteFriend(userId, friendId);
+            graph.remove(userId, friendId);
+        });
+    }
+
+    @Override
+    public Set<User> getFriends(long userId) {
+        userStorage.getUserById(userId);
+        return new HashSet<>(userStorage.getUsersByIds(boxed(graph.getFriends(userId))));
+    }
+
+    @Override
+    public Map<Long, Set<User>> getFriendsByUserIds(Collection<Long> userIds) {
+        // Сами пользователи и все их друзья загружаются одним пакетом
+        Map<Long, long[]> friendIdsByUserId = new HashMap<>();
+        Set<Long> ids = new HashSet<>(userIds);
+        for (Long userId : userIds) {
+            long[] friendIds = graph.getFriends(userId);
+            friendIdsByUserId.put(userId, friendIds);
+            for (long friendId : friendIds) {
+                ids.add(friendId);
+            }
+        }
+
+        Map<Long, User> usersById = new HashMap<>();
+        userStorage.getUsersByIds(ids).forEach(user -> usersById.put(user.getId(), user));
+
+        Map<Long, Set<User>> friendsByUserId = new HashMap<>();
+        friendIdsByUserId.forEach((userId, friendIds) -> {
+            if (!usersById.containsKey(userId)) {
+                return;
+            }
+            Set<User> friends = new HashSet<>();
+            for (long friendId : friendIds) {
+                User friend = usersById.get(friendId);
+                if (friend != null) {
+                    friends.add(friend);
+                }
+            }
+            friendsByUserId.put(userId, friends);
+        });
+        return friendsByUserId;
+    }
+
+    @Override
+    public Set<User> getCommonFriends(long userId, long otherId) {
+        userStorage.getUserById(userId);
+        userStorage.getUserById(otherId);
+        return new HashSet<>(userStorage.getUsersByIds(boxed(graph.getCommonFriends(userId, otherId))));
+    }
+
+    @Override
+    public List<User> getFriendRecommendations(long userId, int limit) {
+        userStorage.getUserById(userId);
+        long[] candidateIds = graph.getRecommendations(userId, limit, recommendationsMaxFanOut,
+                recommendationsTimeout.toNanos());
+        return userStorage.getUsersByIds(boxed(candidateIds));
+    }
+
+    // Запись в базу и правка графа для одной пары пользователей идут в одном порядке,
+    // иначе параллельные добавление и удаление могли бы разойтись между базой и графом
+    private void withEdgeLocked(long userId, long friendId, Runnable action) {
+        long hash = 31 * Long.hashCode(Math.min(userId, friendId)) + Long.hashCode(Math.max(userId, friendId));
+        ReentrantLock lock = locks[Math.floorMod(hash, LOCK_STRIPES)];
+
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<Long> boxed(long[] ids) {
+        List<Long> boxedIds = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            boxedIds.add(id);
+        }
+        return boxedIds;
+    }
+}
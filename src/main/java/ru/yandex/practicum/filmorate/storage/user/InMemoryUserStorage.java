@@ -7,16 +7,34 @@ import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Component
 public class InMemoryUserStorage implements UserStorage {
-    private final Map<Long, User> users = new HashMap<>();
+    private static final int LOCK_STRIPES = 64;
+
+    private final ConcurrentMap<Long, User> users = new ConcurrentHashMap<>();
+    private final AtomicLong idSequence = new AtomicLong();
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public InMemoryUserStorage() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
 
     @Override
     public User addUser(User user) {
         userValidator(user);
-        user.setId(getNextIdForUser());
+        user.setId(idSequence.incrementAndGet());
+        user.setFriends(concurrentCopy(user.getFriends()));
         users.put(user.getId(), user);
         log.info("Добавлен пользователь {}", user);
         return user;
@@ -26,12 +44,16 @@ public class InMemoryUserStorage implements UserStorage {
     public User updateUser(User updatedUser) {
         userValidator(updatedUser);
 
-        if (!users.containsKey(updatedUser.getId())) {
+        User user = users.computeIfPresent(updatedUser.getId(), (id, existingUser) -> {
+            updatedUser.setFriends(existingUser.getFriends());
+            return updatedUser;
+        });
+
+        if (user == null) {
             log.warn("Пользователь с id {} не найден", updatedUser.getId());
             throw new NotFoundException("Пользователь не найден");
         }
 
-        users.put(updatedUser.getId(), updatedUser);
         log.info("Обновлен пользователь с id {}: {}", updatedUser.getId(), updatedUser);
         return updatedUser;
     }
@@ -53,77 +75,116 @@ public class InMemoryUserStorage implements UserStorage {
         return new ArrayList<>(users.values());
     }
 
+    @Override
+    public List<User> getUsersByIds(Collection<Long> ids) {
+        return ids.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<User> getUsersPage(long afterId, int limit) {
+        return users.values().stream()
+                .filter(user -> user.getId() > afterId)
+                .sorted(Comparator.comparingLong(User::getId))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void streamAllUsers(Consumer<User> consumer) {
+        users.values().stream()
+                .sorted(Comparator.comparingLong(User::getId))
+                .forEach(consumer);
+    }
+
     @Override
     public void deleteUserById(Long userId) {
+        User user = withUsersLocked(userId, userId, () -> users.remove(userId));
 
-        if (users.remove(userId) == null) {
+        if (user == null) {
             log.warn("Пользователь с id {} не найден", userId);
             throw new ValidationException("Пользователь не найден");
         }
 
+        for (Long friendId : user.getFriends()) {
+            withUsersLocked(userId, friendId, () -> {
+                User friend = users.get(friendId);
+                return friend != null && friend.getFriends().remove(userId);
+            });
+        }
+
         log.info("Пользователь с id {} удален", userId);
     }
 
     @Override
     public void addFriend(long userId, long friendId) {
-        User user = users.get(userId);
-        User friend = users.get(friendId);
+        withUsersLocked(userId, friendId, () -> {
+            User user = users.get(userId);
+            User friend = users.get(friendId);
 
-        if (user == null || friend == null) {
-            log.warn("Один из пользователей не существует: userId={}, friendId={}", userId, friendId);
-            throw new NotFoundException("Один из пользователей не существует.");
-        }
+            if (user == null || friend == null) {
+                log.warn("Один из пользователей не существует: userId={}, friendId={}", userId, friendId);
+                throw new NotFoundException("Один из пользователей не существует.");
+            }
 
-        if (user.getFriends().contains(friendId)) {
-            log.warn("Пользователь {} уже является другом пользователя {}", userId, friendId);
-            return;
-        }
+            if (user.getFriends().contains(friendId)) {
+                log.warn("Пользователь {} уже является другом пользователя {}", userId, friendId);
+                return false;
+            }
 
-        user.getFriends().add(friendId);
-        friend.getFriends().add(userId);
+            user.getFriends().add(friendId);
+            friend.getFriends().add(userId);
 
-        log.info("Добавлена дружба между пользователем {} и {}", userId, friendId);
+            log.info("Добавлена дружба между пользователем {} и {}", userId, friendId);
+            return true;
+        });
     }
 
     @Override
     public void confirmFriendship(long userId, long friendId) {
-        User user = users.get(userId);
-        User friend = users.get(friendId);
+        withUsersLocked(userId, friendId, () -> {
+            User user = users.get(userId);
+            User friend = users.get(friendId);
 
-        if (user == null || friend == null) {
-            log.warn("Один из пользователей не существует: userId={}, friendId={}", userId, friendId);
-            throw new NotFoundException("Один из пользователей не существует.");
-        }
+            if (user == null || friend == null) {
+                log.warn("Один из пользователей не существует: userId={}, friendId={}", userId, friendId);
+                throw new NotFoundException("Один из пользователей не существует.");
+            }
 
-        if (!user.getFriends().contains(friendId) || !friend.getFriends().contains(userId)) {
-            log.warn("Дружба между пользователями {} и {} еще не подтверждена", userId, friendId);
-            throw new ValidationException("Дружба еще не подтверждена.");
-        }
+            if (!user.getFriends().contains(friendId) || !friend.getFriends().contains(userId)) {
+                log.warn("Дружба между пользователями {} и {} еще не подтверждена", userId, friendId);
+                throw new ValidationException("Дружба еще не подтверждена.");
+            }
 
-        log.info("Дружба между пользователями {} и {} подтверждена", userId, friendId);
+            log.info("Дружба между пользователями {} и {} подтверждена", userId, friendId);
+            return true;
+        });
     }
 
     @Override
     public void deleteFriend(long userId, long friendId) {
-        User user = users.get(userId);
-        User friend = users.get(friendId);
+        withUsersLocked(userId, friendId, () -> {
+            User user = users.get(userId);
+            User friend = users.get(friendId);
 
-        if (user == null || friend == null) {
-            log.warn("Один из пользователей не существует: userId={}, friendId={}", userId, friendId);
-            throw new NotFoundException("Один из пользователей не существует.");
-        }
+            if (user == null || friend == null) {
+                log.warn("Один из пользователей не существует: userId={}, friendId={}", userId, friendId);
+                throw new NotFoundException("Один из пользователей не существует.");
+            }
 
-        if (!user.getFriends().remove(friendId)) {
-            log.warn("Дружба между пользователями {} и {} не найдена.", userId, friendId);
-            throw new ValidationException("Дружба не найдена.");
-        }
+            if (!user.getFriends().contains(friendId) || !friend.getFriends().contains(userId)) {
+                log.warn("Дружба между пользователями {} и {} не найдена.", userId, friendId);
+                throw new ValidationException("Дружба не найдена.");
+            }
 
-        if (!friend.getFriends().remove(userId)) {
-            log.warn("Дружба между пользователями {} и {} не найдена.", userId, friendId);
-            throw new ValidationException("Дружба не найдена.");
-        }
+            user.getFriends().remove(friendId);
+            friend.getFriends().remove(userId);
 
-        log.info("Удалена дружба между пользователем {} и {}", userId, friendId);
+            log.info("Удалена дружба между пользователем {} и {}", userId, friendId);
+            return true;
+        });
     }
 
     @Override
@@ -146,6 +207,17 @@ public class InMemoryUserStorage implements UserStorage {
         return friends;
     }
 
+    @Override
+    public Map<Long, Set<User>> getFriendsByUserIds(Collection<Long> userIds) {
+        Map<Long, Set<User>> friendsByUserId = new HashMap<>();
+        for (Long userId : userIds) {
+            if (users.containsKey(userId)) {
+                friendsByUserId.put(userId, getFriends(userId));
+            }
+        }
+        return friendsByUserId;
+    }
+
 
     @Override
     public Set<User> getCommonFriends(long userId, long otherId) {
@@ -157,10 +229,17 @@ public class InMemoryUserStorage implements UserStorage {
             throw new NotFoundException("Один из пользователей не существует.");
         }
 
+        Set<Long> smaller = user.getFriends();
+        Set<Long> larger = otherUser.getFriends();
+        if (smaller.size() > larger.size()) {
+            smaller = otherUser.getFriends();
+            larger = user.getFriends();
+        }
+
         Set<User> commonFriends = new HashSet<>();
 
-        for (Long friendId : user.getFriends()) {
-            if (otherUser.getFriends().contains(friendId)) {
+        for (Long friendId : smaller) {
+            if (larger.contains(friendId)) {
                 User commonFriend = users.get(friendId);
                 if (commonFriend != null) {
                     commonFriends.add(commonFriend);
@@ -171,19 +250,65 @@ public class InMemoryUserStorage implements UserStorage {
         return commonFriends;
     }
 
+    @Override
+    public List<User> getFriendRecommendations(long userId, int limit) {
+        User user = users.get(userId);
+
+        if (user == null) {
+            log.warn("Пользователь с id {} не найден", userId);
+            throw new NotFoundException("Пользователь не найден.");
+        }
+
+        Map<Long, Integer> mutualFriends = new HashMap<>();
+        for (Long friendId : user.getFriends()) {
+            User friend = users.get(friendId);
+            if (friend == null) {
+                continue;
+            }
+            for (Long candidateId : friend.getFriends()) {
+                if (candidateId != userId && !user.getFriends().contains(candidateId)) {
+                    mutualFriends.merge(candidateId, 1, Integer::sum);
+                }
+            }
+        }
+
+        return mutualFriends.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(entry -> users.get(entry.getKey()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private <T> T withUsersLocked(long userId, long otherId, Supplier<T> action) {
+        int userStripe = Math.floorMod(Long.hashCode(userId), LOCK_STRIPES);
+        int otherStripe = Math.floorMod(Long.hashCode(otherId), LOCK_STRIPES);
+        ReentrantLock first = locks[Math.min(userStripe, otherStripe)];
+        ReentrantLock second = locks[Math.max(userStripe, otherStripe)];
+
+        first.lock();
+        second.lock();
+        try {
+            return action.get();
+        } finally {
+            second.unlock();
+            first.unlock();
+        }
+    }
+
+    private Set<Long> concurrentCopy(Set<Long> ids) {
+        Set<Long> copy = ConcurrentHashMap.newKeySet();
+        if (ids != null) {
+            copy.addAll(ids);
+        }
+        return copy;
+    }
+
     private void userValidator(User user) {
         if (user.getName() == null || user.getName().isBlank()) {
             user.setName(user.getLogin());
             log.info("Вместо имени пользователя использован логин");
         }
     }
-
-    private long getNextIdForUser() {
-        long currentMaxId = users.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        return ++currentMaxId;
-    }
-}
\ No newline at end of file
+}
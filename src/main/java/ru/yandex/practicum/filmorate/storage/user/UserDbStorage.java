@@ -2,12 +2,17 @@ package ru.yandex.practicum.filmorate.storage.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.yandex.practicum.filmorate.exception.FriendNotFoundException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
@@ -16,16 +21,24 @@ import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Objects;
-import java.util.Set;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Repository
 @RequiredArgsConstructor
 public class UserDbStorage implements UserStorage {
+    private static final int STREAM_FETCH_SIZE = 1000;
+    // Запросы, планы которых проверяются в тестах
+    static final String LIKED_FILMS_SQL = "SELECT film_id FROM likes WHERE user_id = ?";
+    static final String FRIENDS_SQL = "SELECT u.* FROM users u " +
+            "JOIN friendships f ON u.user_id = f.friend_id " +
+            "WHERE f.user_id = ?";
+
     private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     public User addUser(User user) {
@@ -37,7 +50,7 @@ public class UserDbStorage implements UserStorage {
         KeyHolder keyHolder = new GeneratedKeyHolder();
 
         jdbcTemplate.update(connection -> {
-            PreparedStatement ps = connection.prepareStatement(sql, new String[]{"USER_ID"});
+            PreparedStatement ps = connection.prepareStatement(sql, new String[]{"user_id"});
             ps.setString(1, user.getEmail());
             ps.setString(2, user.getLogin());
             ps.setString(3, user.getName());
@@ -46,12 +59,13 @@ public class UserDbStorage implements UserStorage {
         }, keyHolder);
 
         user.setId(Objects.requireNonNull(keyHolder.getKey()).longValue());
+        user.setVersion(1);
         return user;
     }
 
     @Override
     public User updateUser(User user) {
-        String sql = "UPDATE users SET email = ?, login = ?, name = ?, birthday = ? WHERE user_id = ?";
+        String sql = "UPDATE users SET email = ?, login = ?, name = ?, birthday = ?, version = version + 1 WHERE user_id = ?";
         int rowsUpdated = jdbcTemplate.update(sql,
                 user.getEmail(),
                 user.getLogin(),
@@ -84,25 +98,80 @@ public class UserDbStorage implements UserStorage {
         return jdbcTemplate.query(sql, new UserMapper());
     }
 
+    @Override
+    public List<User> getUsersByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        String sql = "SELECT * FROM users WHERE user_id IN (" + placeholders + ")";
+
+        Map<Long, User> usersById = new HashMap<>();
+        jdbcTemplate.query(sql, new UserMapper(), ids.toArray())
+                .forEach(user -> usersById.put(user.getId(), user));
+
+        return ids.stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<User> getUsersPage(long afterId, int limit) {
+        String sql = "SELECT * FROM users WHERE user_id > ? ORDER BY user_id LIMIT ?";
+        return jdbcTemplate.query(sql, new UserMapper(), afterId, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllUsers(Consumer<User> consumer) {
+        String sql = "SELECT * FROM users ORDER BY user_id";
+        UserMapper userMapper = new UserMapper();
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            consumer.accept(userMapper.mapRow(rs, rs.getRow()));
+        });
+    }
+
     @Override
     public void deleteUserById(Long userId) {
-        String sql = "DELETE FROM users WHERE user_id = ?";
-        jdbcTemplate.update(sql, userId);
+        // Событие публикуется до транзакции удаления: слушатели успевают дописать в базу всё,
+        // что относится к пользователю, не удерживая второе соединение
+        eventPublisher.publishEvent(new UserDeletingEvent(userId));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> likedFilmIds = jdbcTemplate.queryForList(LIKED_FILMS_SQL, Long.class, userId);
+
+            String counterSql = "UPDATE films SET likes_count = likes_count - 1, version = version + 1 " +
+                    "WHERE film_id IN (SELECT film_id FROM likes WHERE user_id = ?)";
+            jdbcTemplate.update(counterSql, userId);
+
+            String sql = "DELETE FROM users WHERE user_id = ?";
+            if (jdbcTemplate.update(sql, userId) > 0) {
+                eventPublisher.publishEvent(new UserDeletedEvent(userId, likedFilmIds));
+            }
+        });
     }
 
     @Override
     public void addFriend(long userId, long friendId) {
-        String checkUserExists = "SELECT COUNT(*) FROM users WHERE user_id = ?";
-        Integer userExists = jdbcTemplate.queryForObject(checkUserExists, Integer.class, userId);
-        Integer friendExists = jdbcTemplate.queryForObject(checkUserExists, Integer.class, friendId);
-
-        if (userExists == 0 || friendExists == 0) {
+        String sql = "MERGE INTO friendships f " +
+                "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT))) AS s (user_id, friend_id) " +
+                "ON f.user_id = s.user_id AND f.friend_id = s.friend_id " +
+                "WHEN NOT MATCHED THEN INSERT (user_id, friend_id) VALUES (s.user_id, s.friend_id)";
+        try {
+            jdbcTemplate.update(sql, userId, friendId);
+        } catch (DuplicateKeyException e) {
+            log.debug("Дружба между пользователем {} и {} уже добавлена параллельным запросом", userId, friendId);
+        } catch (DataIntegrityViolationException e) {
             throw new NotFoundException("Один из пользователей не существует.");
         }
 
-        String sqlAddFriendship = "INSERT INTO friendships (user_id, friend_id) VALUES (?, ?)";
-        jdbcTemplate.update(sqlAddFriendship, userId, friendId);
-
         log.info("Добавлена дружба между пользователем {} и {}", userId, friendId);
     }
 
@@ -139,11 +208,31 @@ public class UserDbStorage implements UserStorage {
             throw new NotFoundException("Пользователь с id " + userId + " не найден.");
         }
 
-        String sql = "SELECT u.* FROM users u " +
-                "JOIN friendships f ON u.user_id = f.friend_id " +
-                "WHERE f.user_id = ?";
+        return new HashSet<>(jdbcTemplate.query(FRIENDS_SQL, new UserMapper(), userId));
+    }
+
+    @Override
+    public Map<Long, Set<User>> getFriendsByUserIds(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return new HashMap<>();
+        }
 
-        return new HashSet<>(jdbcTemplate.query(sql, new UserMapper(), userId));
+        // LEFT JOIN оставляет строку и для пользователя без друзей, чтобы отличить его от несуществующего
+        String placeholders = String.join(", ", Collections.nCopies(userIds.size(), "?"));
+        String sql = "SELECT o.user_id AS owner_id, u.* FROM users o " +
+                "LEFT JOIN friendships f ON f.user_id = o.user_id " +
+                "LEFT JOIN users u ON u.user_id = f.friend_id " +
+                "WHERE o.user_id IN (" + placeholders + ")";
+
+        Map<Long, Set<User>> friendsByUserId = new HashMap<>();
+        UserMapper mapper = new UserMapper();
+        jdbcTemplate.query(sql, rs -> {
+            Set<User> friends = friendsByUserId.computeIfAbsent(rs.getLong("owner_id"), id -> new HashSet<>());
+            if (rs.getObject("user_id") != null) {
+                friends.add(mapper.mapRow(rs, rs.getRow()));
+            }
+        }, userIds.toArray());
+        return friendsByUserId;
     }
 
     @Override
@@ -168,6 +257,23 @@ public class UserDbStorage implements UserStorage {
         return new HashSet<>(jdbcTemplate.query(sql, new UserMapper(), userId, otherId));
     }
 
+    @Override
+    public List<User> getFriendRecommendations(long userId, int limit) {
+        getUserById(userId);
+
+        String sql = "SELECT u.* FROM users u " +
+                "JOIN (SELECT f2.friend_id AS candidate_id, COUNT(*) AS mutual_friends " +
+                "FROM friendships f1 " +
+                "JOIN friendships f2 ON f1.friend_id = f2.user_id " +
+                "WHERE f1.user_id = ? AND f2.friend_id <> ? " +
+                "AND f2.friend_id NOT IN (SELECT friend_id FROM friendships WHERE user_id = ?) " +
+                "GROUP BY f2.friend_id " +
+                "ORDER BY mutual_friends DESC, f2.friend_id " +
+                "LIMIT ?) r ON u.user_id = r.candidate_id " +
+                "ORDER BY r.mutual_friends DESC, u.user_id";
+        return jdbcTemplate.query(sql, new UserMapper(), userId, userId, userId, limit);
+    }
+
     private static class UserMapper implements RowMapper<User> {
         @Override
         public User mapRow(ResultSet rs, int rowNum) throws SQLException {
@@ -177,6 +283,7 @@ public class UserDbStorage implements UserStorage {
             user.setName(rs.getString("name"));
             user.setLogin(rs.getString("login"));
             user.setBirthday(rs.getDate("birthday").toLocalDate());
+            user.setVersion(rs.getLong("version"));
             return user;
         }
     }
@@ -0,0 +1,6 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import java.util.List;
+
+public record UserDeletedEvent(long userId, List<Long> likedFilmIds) {
+}
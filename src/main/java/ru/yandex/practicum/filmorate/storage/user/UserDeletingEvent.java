@@ -0,0 +1,5 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+// Публикуется до удаления пользователя, пока его данные ещё в базе
+public record UserDeletingEvent(long userId) {
+}
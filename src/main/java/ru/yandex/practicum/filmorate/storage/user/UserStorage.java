@@ -2,8 +2,11 @@ package ru.yandex.practicum.filmorate.storage.user;
 
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 public interface UserStorage {
 
@@ -15,6 +18,12 @@ public interface UserStorage {
 
     List<User> getAllUsers();
 
+    List<User> getUsersByIds(Collection<Long> ids);
+
+    List<User> getUsersPage(long afterId, int limit);
+
+    void streamAllUsers(Consumer<User> consumer);
+
     void deleteUserById(Long userId);
 
     void addFriend(long userId, long friendId);
@@ -25,5 +34,10 @@ public interface UserStorage {
 
     Set<User> getFriends(long userId);
 
+    // Друзья нескольких пользователей сразу; несуществующих пользователей в результате нет
+    Map<Long, Set<User>> getFriendsByUserIds(Collection<Long> userIds);
+
     Set<User> getCommonFriends(long userId, long otherId);
+
+    List<User> getFriendRecommendations(long userId, int limit);
 }
\ No newline at end of file
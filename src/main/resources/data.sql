@@ -1,12 +0,0 @@
-INSERT INTO genres (name) VALUES ('Комедия');
-INSERT INTO genres (name) VALUES ('Драма');
-INSERT INTO genres (name) VALUES ('Мультфильм');
-INSERT INTO genres (name) VALUES ('Триллер');
-INSERT INTO genres (name) VALUES ('Документальный');
-INSERT INTO genres (name) VALUES ('Боевик');
-
-INSERT INTO mpa_ratings (rating) VALUES ('G');
-INSERT INTO mpa_ratings (rating) VALUES ('PG');
-INSERT INTO mpa_ratings (rating) VALUES ('PG-13');
-INSERT INTO mpa_ratings (rating) VALUES ('R');
-INSERT INTO mpa_ratings (rating) VALUES ('NC-17');
\ No newline at end of file
@@ -1,5 +1,3 @@
-DROP TABLE IF EXISTS users, films, likes, friendships, film_genres, genres, mpa_ratings;
-
 CREATE TABLE IF NOT EXISTS genres
 (
     id   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -58,4 +56,4 @@ CREATE TABLE IF NOT EXISTS film_genres
     FOREIGN KEY (film_id) REFERENCES films (film_id) ON DELETE CASCADE,
     FOREIGN KEY (genre_id) REFERENCES genres (id) ON DELETE CASCADE,
     PRIMARY KEY (film_id, genre_id)
-);
\ No newline at end of file
+);
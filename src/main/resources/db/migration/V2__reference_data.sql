@@ -0,0 +1,12 @@
+INSERT INTO genres (name) SELECT 'Комедия' WHERE NOT EXISTS (SELECT 1 FROM genres WHERE name = 'Комедия');
+INSERT INTO genres (name) SELECT 'Драма' WHERE NOT EXISTS (SELECT 1 FROM genres WHERE name = 'Драма');
+INSERT INTO genres (name) SELECT 'Мультфильм' WHERE NOT EXISTS (SELECT 1 FROM genres WHERE name = 'Мультфильм');
+INSERT INTO genres (name) SELECT 'Триллер' WHERE NOT EXISTS (SELECT 1 FROM genres WHERE name = 'Триллер');
+INSERT INTO genres (name) SELECT 'Документальный' WHERE NOT EXISTS (SELECT 1 FROM genres WHERE name = 'Документальный');
+INSERT INTO genres (name) SELECT 'Боевик' WHERE NOT EXISTS (SELECT 1 FROM genres WHERE name = 'Боевик');
+
+INSERT INTO mpa_ratings (rating) SELECT 'G' WHERE NOT EXISTS (SELECT 1 FROM mpa_ratings WHERE rating = 'G');
+INSERT INTO mpa_ratings (rating) SELECT 'PG' WHERE NOT EXISTS (SELECT 1 FROM mpa_ratings WHERE rating = 'PG');
+INSERT INTO mpa_ratings (rating) SELECT 'PG-13' WHERE NOT EXISTS (SELECT 1 FROM mpa_ratings WHERE rating = 'PG-13');
+INSERT INTO mpa_ratings (rating) SELECT 'R' WHERE NOT EXISTS (SELECT 1 FROM mpa_ratings WHERE rating = 'R');
+INSERT INTO mpa_ratings (rating) SELECT 'NC-17' WHERE NOT EXISTS (SELECT 1 FROM mpa_ratings WHERE rating = 'NC-17');
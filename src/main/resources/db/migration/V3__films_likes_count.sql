@@ -0,0 +1,7 @@
+ALTER TABLE films ADD COLUMN IF NOT EXISTS likes_count BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_films_likes_count ON films (likes_count DESC, film_id);
+
+UPDATE films f
+SET likes_count = (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id)
+WHERE likes_count <> (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id);
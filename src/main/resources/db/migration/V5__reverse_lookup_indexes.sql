@@ -0,0 +1,5 @@
+-- Первичные ключи связующих таблиц ведут по первому столбцу, обратные индексы закрывают поиск по второму:
+-- лайки пользователя (рекомендации, каскадное удаление) и входящие дружбы. Фильмы жанра покрыты индексом из V4
+CREATE INDEX IF NOT EXISTS idx_likes_user_film ON likes (user_id, film_id);
+
+CREATE INDEX IF NOT EXISTS idx_friendships_friend_user ON friendships (friend_id, user_id);
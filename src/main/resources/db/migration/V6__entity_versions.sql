@@ -0,0 +1,4 @@
+-- Версия строки растёт при каждом изменении фильма или пользователя и служит основой для ETag
+ALTER TABLE films ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 1;
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 1;
@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate;
+
+import com.jayway.jsonpath.JsonPath;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Создание фильмов и пользователей через API для тестов, которым нужны готовые данные
+public final class MockMvcFixtures {
+
+    private MockMvcFixtures() {
+    }
+
+    public static long addFilm(MockMvc mockMvc, String name, long... genreIds) throws Exception {
+        String genres = Arrays.stream(genreIds)
+                .mapToObj(genreId -> "{\"id\": " + genreId + "}")
+                .collect(Collectors.joining(", ", "[", "]"));
+        String body = "{\"name\": \"" + name + "\", \"description\": \"d\", \"releaseDate\": \"2000-01-01\", " +
+                "\"duration\": 100, \"mpa\": {\"id\": 1}, \"genres\": " + genres + "}";
+        return create(mockMvc, "/films", body);
+    }
+
+    public static long addUser(MockMvc mockMvc, String login) throws Exception {
+        String body = "{\"email\": \"" + login + "@example.com\", \"login\": \"" + login + "\", " +
+                "\"birthday\": \"1990-01-01\"}";
+        return create(mockMvc, "/users", body);
+    }
+
+    private static long create(MockMvc mockMvc, String path, String body) throws Exception {
+        String response = mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.<Number>read(response, "$.id").longValue();
+    }
+}
@@ -0,0 +1,123 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.yandex.practicum.filmorate.MockMvcFixtures.addFilm;
+import static ru.yandex.practicum.filmorate.MockMvcFixtures.addUser;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+public class ConditionalGetTest {
+    private final MockMvc mockMvc;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public ConditionalGetTest(MockMvc mockMvc, MeterRegistry meterRegistry) {
+        this.mockMvc = mockMvc;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Test
+    void shouldReturnNotModifiedForFilmUntilLikedTest() throws Exception {
+        long filmId = addFilm(mockMvc, "etag");
+        long userId = addUser(mockMvc, "etag");
+
+        String etag = mockMvc.perform(get("/films/" + filmId))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        mockMvc.perform(get("/films/" + filmId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        MvcResult batched = performAsync(get("/films/" + filmId + "/batched").header(HttpHeaders.IF_NONE_MATCH, etag));
+        assertThat(batched.getResponse().getStatus()).isEqualTo(304);
+
+        mockMvc.perform(put("/films/" + filmId + "/like/" + userId)).andExpect(status().isOk());
+
+        mockMvc.perform(get("/films/" + filmId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    void shouldValidatePopularFilmsWithoutQueriesTest() throws Exception {
+        addFilm(mockMvc, "popular");
+        String etag = mockMvc.perform(get("/films/popular"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        DistributionSummary queries = meterRegistry.find("filmorate.http.queries")
+                .tags("method", "GET", "uri", "/films/popular")
+                .summary();
+        assertThat(queries).isNotNull();
+        double queriesBefore = queries.totalAmount();
+
+        mockMvc.perform(get("/films/popular").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        assertThat(queries.totalAmount()).isEqualTo(queriesBefore);
+
+        addFilm(mockMvc, "popular2");
+        mockMvc.perform(get("/films/popular").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldReturnNotModifiedForUserUntilUpdatedTest() throws Exception {
+        long userId = addUser(mockMvc, "etaguser");
+        String etag = mockMvc.perform(get("/users/" + userId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/users/" + userId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        String body = "{\"id\": " + userId + ", \"email\": \"renamed@example.com\", \"login\": \"etaguser\", " +
+                "\"name\": \"renamed\", \"birthday\": \"1990-01-01\"}";
+        mockMvc.perform(put("/users").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/users/" + userId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    void shouldReturnNotModifiedForReferenceDataTest() throws Exception {
+        for (String uri : new String[]{"/genres", "/genres/1", "/mpa", "/mpa/1"}) {
+            String etag = mockMvc.perform(get(uri))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+            mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified());
+        }
+    }
+
+    private MvcResult performAsync(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(asyncDispatch(mockMvc.perform(request).andReturn())).andReturn();
+    }
+}
@@ -0,0 +1,101 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.yandex.practicum.filmorate.MockMvcFixtures.addFilm;
+import static ru.yandex.practicum.filmorate.MockMvcFixtures.addUser;
+
+@SpringBootTest(properties = "filmorate.response-cache.gzip-min-size=1")
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+public class JsonResponseCacheTest {
+    private final MockMvc mockMvc;
+    private final JsonResponseCache responseCache;
+
+    @Autowired
+    public JsonResponseCacheTest(MockMvc mockMvc, JsonResponseCache responseCache) {
+        this.mockMvc = mockMvc;
+        this.responseCache = responseCache;
+    }
+
+    @Test
+    void shouldServeCachedBytesUntilCatalogChangesTest() throws Exception {
+        long filmId = addFilm(mockMvc, "cached");
+        long userId = addUser(mockMvc, "cached");
+
+        String first = getPopular();
+        long hits = responseCache.getCache().stats().hitCount();
+        String second = getPopular();
+
+        assertThat(second).isEqualTo(first);
+        assertThat(responseCache.getCache().stats().hitCount()).isEqualTo(hits + 1);
+
+        mockMvc.perform(put("/films/" + filmId + "/like/" + userId)).andExpect(status().isOk());
+
+        String changed = getPopular();
+        assertThat(changed).isNotEqualTo(first);
+        assertThat(JsonPath.<Integer>read(changed, "$[0].id")).isEqualTo((int) filmId);
+    }
+
+    @Test
+    void shouldShareOneEntryForPopularCountsAboveLimitTest() throws Exception {
+        String limited = getPopular();
+        long hits = responseCache.getCache().stats().hitCount();
+
+        for (String count : List.of("1001", "5000")) {
+            String response = mockMvc.perform(get("/films/popular").param("count", count))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+            assertThat(response).isEqualTo(limited);
+        }
+
+        assertThat(responseCache.getCache().stats().hitCount()).isEqualTo(hits + 2);
+        mockMvc.perform(get("/films/popular").param("count", "0")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldServeGzipOnlyWhenAcceptedTest() throws Exception {
+        String plain = mockMvc.perform(get("/genres"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        byte[] compressed = mockMvc.perform(get("/genres").header(HttpHeaders.ACCEPT_ENCODING, "br, gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertThat(new String(gzip.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(plain);
+        }
+
+        mockMvc.perform(get("/mpa").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    private String getPopular() throws Exception {
+        return mockMvc.perform(get("/films/popular").param("count", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,101 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.yandex.practicum.filmorate.MockMvcFixtures.addFilm;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+public class MetricsTest {
+    private final MockMvc mockMvc;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public MetricsTest(MockMvc mockMvc, MeterRegistry meterRegistry) {
+        this.mockMvc = mockMvc;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Test
+    void shouldTimeStorageCallsAndCountQueriesPerRequestTest() throws Exception {
+        mockMvc.perform(get("/users")).andExpect(status().isOk());
+
+        Timer users = meterRegistry.find(StorageMetricsAspect.METRIC_NAME)
+                .tags("storage", "UserDbStorage", "method", "getAllUsers", "outcome", "success")
+                .timer();
+        DistributionSummary queries = meterRegistry.find(QueryCountFilter.METRIC_NAME)
+                .tags("method", "GET", "uri", "/users")
+                .summary();
+
+        assertThat(users).isNotNull();
+        assertThat(users.count()).isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.find(StorageMetricsAspect.METRIC_NAME).tag("storage", "CachingUserStorage").timer())
+                .isNull();
+        assertThat(queries).isNotNull();
+        assertThat(queries.max()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldExposeCacheMetricsTest() {
+        assertThat(meterRegistry.find("cache.gets").tag("cache", "films").functionCounters()).isNotEmpty();
+        assertThat(meterRegistry.find("cache.gets").tag("cache", "users").functionCounters()).isNotEmpty();
+    }
+
+    @Test
+    void shouldLoadFilmsByIdsInTwoQueriesKeepingRequestOrderTest() throws Exception {
+        long first = addFilm(mockMvc, "multi1", 2, 1);
+        long second = addFilm(mockMvc, "multi2", 2, 1);
+
+        mockMvc.perform(get("/films").param("ids", second + ",9999," + first))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id").value(contains((int) second, (int) first)))
+                .andExpect(jsonPath("$.missingIds").value(contains(9999)));
+
+        DistributionSummary queries = meterRegistry.find(QueryCountFilter.METRIC_NAME)
+                .tags("method", "GET", "uri", "/films")
+                .summary();
+        assertThat(queries).isNotNull();
+        assertThat(queries.max()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCountBatchedQueriesOfAsyncRequestTest() throws Exception {
+        long filmId = addFilm(mockMvc, "async", 2, 1);
+
+        MvcResult started = mockMvc.perform(get("/films/" + filmId + "/batched"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        DistributionSummary queries = meterRegistry.find(QueryCountFilter.METRIC_NAME)
+                .tags("method", "GET", "uri", "/films/{id}/batched")
+                .summary();
+        assertThat(queries).isNull();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value((int) filmId));
+
+        queries = meterRegistry.find(QueryCountFilter.METRIC_NAME)
+                .tags("method", "GET", "uri", "/films/{id}/batched")
+                .summary();
+        assertThat(queries).isNotNull();
+        assertThat(queries.count()).isEqualTo(1);
+        assertThat(queries.max()).isGreaterThanOrEqualTo(1);
+    }
+}
@@ -0,0 +1,90 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.metrics.QueryCounter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BatchLoaderTest {
+    private final List<List<Long>> batches = new CopyOnWriteArrayList<>();
+    private final QueryCounter queryCounter = new QueryCounter();
+    private final BatchLoader<String> loader = new BatchLoader<>("test", this::load,
+            id -> new NotFoundException("Не найден " + id), Duration.ofMillis(50), 3, queryCounter);
+
+    @AfterEach
+    public void tearDown() {
+        loader.close();
+    }
+
+    @Test
+    void shouldCollapseLoadsWithinWindowIntoOneBatchTest() {
+        CompletableFuture<String> first = loader.load(1);
+        CompletableFuture<String> second = loader.load(2);
+        CompletableFuture<String> duplicate = loader.load(1);
+
+        assertThat(first.join()).isEqualTo("value1");
+        assertThat(second.join()).isEqualTo("value2");
+        assertThat(duplicate).isSameAs(first);
+        assertThat(batches).containsExactly(List.of(1L, 2L));
+    }
+
+    @Test
+    void shouldDispatchFullBatchWithoutWaitingForWindowTest() {
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (long id = 1; id <= 4; id++) {
+            futures.add(loader.load(id));
+        }
+
+        futures.forEach(CompletableFuture::join);
+        assertThat(batches).hasSize(2);
+        assertThat(batches.get(0)).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(batches.get(1)).containsExactly(4L);
+    }
+
+    @Test
+    void shouldFailMissingIdsWithNotFoundTest() {
+        CompletableFuture<String> missing = loader.load(-1);
+
+        assertThatThrownBy(missing::join).hasCauseInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void shouldCountBatchQueriesForEveryWaitingCallerTest() {
+        AtomicInteger firstCounter = new AtomicInteger();
+        AtomicInteger secondCounter = new AtomicInteger();
+
+        queryCounter.bind(firstCounter);
+        CompletableFuture<String> first = loader.load(1);
+        queryCounter.bind(secondCounter);
+        CompletableFuture<String> second = loader.load(2);
+        queryCounter.clear();
+
+        first.join();
+        second.join();
+        assertThat(batches).hasSize(1);
+        assertThat(firstCounter.get()).isEqualTo(1);
+        assertThat(secondCounter.get()).isEqualTo(1);
+    }
+
+    private Map<Long, String> load(List<Long> ids) {
+        batches.add(ids);
+        queryCounter.increment();
+        Map<Long, String> values = new HashMap<>();
+        ids.stream()
+                .filter(id -> id > 0)
+                .forEach(id -> values.put(id, "value" + id));
+        return values;
+    }
+}
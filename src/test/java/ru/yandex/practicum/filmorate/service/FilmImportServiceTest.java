@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmImportError;
+import ru.yandex.practicum.filmorate.model.FilmImportResult;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "filmorate.bulk.chunk-size=2")
+@AutoConfigureTestDatabase
+@DirtiesContext
+public class FilmImportServiceTest {
+    private final FilmImportService filmImportService;
+    private final FilmStorage filmStorage;
+
+    @Autowired
+    public FilmImportServiceTest(FilmImportService filmImportService,
+                                 @Qualifier("filmDbStorage") FilmStorage filmStorage) {
+        this.filmImportService = filmImportService;
+        this.filmStorage = filmStorage;
+    }
+
+    @Test
+    void shouldImportJsonArrayInChunksAndReportInvalidItemsTest() throws IOException {
+        String body = "[" +
+                film("film1", 1, "[{\"id\": 2}, {\"id\": 1}]") + "," +
+                film("", 1, "[]") + "," +
+                film("film3", 9, "[]") + "," +
+                film("film4", 2, "[{\"id\": 42}]") + "," +
+                film("film5", 3, "[]") + "," +
+                film("film6", 4, "[{\"id\": 6}]") +
+                "]";
+
+        FilmImportResult result = filmImportService.importFilms(toStream(body));
+
+        assertThat(result.received()).isEqualTo(6);
+        assertThat(result.imported()).isEqualTo(3);
+        assertThat(result.errors()).extracting(FilmImportError::index).containsExactly(1, 2, 3);
+        assertThat(filmStorage.getAllFilms())
+                .extracting(Film::getName)
+                .contains("film1", "film5", "film6");
+        assertThat(filmStorage.getAllFilms())
+                .filteredOn(film -> film.getName().equals("film1"))
+                .first()
+                .satisfies(film -> assertThat(film.getGenres()).extracting("id").containsExactly(1L, 2L));
+    }
+
+    @Test
+    void shouldImportNdjsonTest() throws IOException {
+        String body = film("ndjson1", 1, "[]") + "\n" + film("ndjson2", 5, "[{\"id\": 3}]") + "\n";
+
+        FilmImportResult result = filmImportService.importFilms(toStream(body));
+
+        assertThat(result.imported()).isEqualTo(2);
+        assertThat(result.failed()).isZero();
+    }
+
+    private String film(String name, long mpaId, String genres) {
+        return "{\"name\": \"" + name + "\", \"description\": \"description\", " +
+                "\"releaseDate\": \"2000-01-01\", \"duration\": 100, " +
+                "\"mpa\": {\"id\": " + mpaId + "}, \"genres\": " + genres + "}";
+    }
+
+    private ByteArrayInputStream toStream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.metrics.QueryCounter;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class UserServiceTest {
+    private final UserService userService = new UserService(new InMemoryUserStorage(), new QueryCounter(),
+            Duration.ofMillis(2), 500, 1000, 10);
+
+    @AfterEach
+    public void tearDown() {
+        userService.close();
+    }
+
+    @Test
+    void shouldRejectPageLimitOutsideBoundsTest() {
+        assertThat(userService.getUsersPage(0, 10)).isEmpty();
+        assertThatThrownBy(() -> userService.getUsersPage(0, 11)).isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> userService.getUsersPage(0, 0)).isInstanceOf(ValidationException.class);
+    }
+}
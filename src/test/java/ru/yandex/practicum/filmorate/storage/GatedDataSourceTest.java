@@ -0,0 +1,39 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class GatedDataSourceTest {
+    private final GatedDataSource dataSource = new GatedDataSource(
+            new DriverManagerDataSource("jdbc:h2:mem:gate;DB_CLOSE_DELAY=-1", "sa", ""), 1, Duration.ofMillis(50));
+
+    @Test
+    void shouldRejectConnectionsOverLimitUntilReleasedTest() throws Exception {
+        Connection connection = dataSource.getConnection();
+
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+        connection.close();
+        try (Connection next = dataSource.getConnection()) {
+            assertThat(next.isValid(1)).isTrue();
+        }
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReleasePermitOnceOnRepeatedCloseTest() throws Exception {
+        Connection connection = dataSource.getConnection();
+
+        connection.close();
+        connection.close();
+
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LongAdjacencyTest {
+    private final LongAdjacency adjacency = new LongAdjacency();
+
+    @Test
+    void shouldKeepReverseEdgesInSyncUnderConcurrentAddAndRemoveTest() throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 20_000; round++) {
+                Future<?> adding = executor.submit(() -> {
+                    barrier.await();
+                    return adjacency.add(1, 2);
+                });
+                Future<?> removing = executor.submit(() -> {
+                    barrier.await();
+                    return adjacency.remove(1, 2);
+                });
+                adding.get();
+                removing.get();
+
+                boolean forward = adjacency.getTargets(1).length > 0;
+                boolean reverse = adjacency.getSources(2).length > 0;
+                assertThat(reverse).as("раунд %d", round).isEqualTo(forward);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldRemoveSourceAndTargetFromBothDirectionsTest() {
+        adjacency.add(1, 10);
+        adjacency.add(1, 20);
+        adjacency.add(2, 10);
+
+        adjacency.removeSource(1);
+        assertThat(adjacency.getSources(10)).containsExactly(2);
+        assertThat(adjacency.getSources(20)).isEmpty();
+
+        adjacency.removeTarget(10);
+        assertThat(adjacency.getTargets(2)).isEmpty();
+        assertThat(adjacency.size()).isZero();
+    }
+}
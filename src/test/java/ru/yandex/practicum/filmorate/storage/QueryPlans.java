@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Locale;
+
+public final class QueryPlans {
+    public static final String TABLE_SCAN = "tablescan";
+
+    private QueryPlans() {
+    }
+
+    public static String explain(JdbcTemplate jdbcTemplate, String sql, Object... params) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, params))
+                .toLowerCase(Locale.ROOT);
+    }
+}
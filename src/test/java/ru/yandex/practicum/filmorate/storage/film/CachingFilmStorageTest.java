@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CachingFilmStorageTest {
+    private final InMemoryFilmStorage delegate = new InMemoryFilmStorage(20);
+    private final CachingFilmStorage filmStorage = new CachingFilmStorage(delegate, 100, Duration.ofMinutes(1));
+
+    @Test
+    void shouldCountHitsAndMissesTest() {
+        Film film = filmStorage.addFilm(createFilm());
+
+        filmStorage.getFilmById(film.getId());
+        filmStorage.getFilmById(film.getId());
+        filmStorage.getFilmsByIds(List.of(film.getId(), 999L));
+
+        assertThat(filmStorage.getCacheStats().hitCount()).isEqualTo(2);
+        assertThat(filmStorage.getCacheStats().missCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldInvalidateOnUpdateAndLikeTest() {
+        Film film = filmStorage.addFilm(createFilm());
+        filmStorage.getFilmById(film.getId());
+
+        filmStorage.addLike(film.getId(), 1);
+        assertThat(filmStorage.getCache().getIfPresent(film.getId())).isNull();
+
+        filmStorage.getFilmById(film.getId());
+        Film updatedFilm = createFilm();
+        updatedFilm.setId(film.getId());
+        updatedFilm.setName("updated");
+        filmStorage.updateFilm(updatedFilm);
+
+        assertThat(filmStorage.getCache().getIfPresent(film.getId())).isNull();
+        assertThat(filmStorage.getFilmById(film.getId()).getName()).isEqualTo("updated");
+    }
+
+    @Test
+    void shouldNotCacheBatchLoadedAcrossInvalidationTest() {
+        List<Runnable> concurrentWrites = new ArrayList<>();
+        InMemoryFilmStorage racingDelegate = new InMemoryFilmStorage(20) {
+            @Override
+            public List<Film> getFilmsByIds(Collection<Long> ids) {
+                List<Film> films = super.getFilmsByIds(ids);
+                concurrentWrites.forEach(Runnable::run);
+                return films;
+            }
+        };
+        CachingFilmStorage racingStorage = new CachingFilmStorage(racingDelegate, 100, Duration.ofMinutes(1));
+        Film film = racingStorage.addFilm(createFilm());
+        Film updatedFilm = createFilm();
+        updatedFilm.setId(film.getId());
+        updatedFilm.setName("updated");
+        concurrentWrites.add(() -> racingStorage.updateFilm(updatedFilm));
+
+        assertThat(racingStorage.getFilmsByIds(List.of(film.getId()))).extracting(Film::getName)
+                .containsExactly("film");
+
+        assertThat(racingStorage.getCache().getIfPresent(film.getId())).isNull();
+        assertThat(racingStorage.getFilmById(film.getId()).getName()).isEqualTo("updated");
+    }
+
+    @Test
+    void shouldReturnCopiesOfCachedFilmsTest() {
+        Film film = filmStorage.addFilm(createFilm());
+
+        filmStorage.getFilmById(film.getId()).getLikes().add(42L);
+        filmStorage.getFilmsByIds(List.of(film.getId())).getFirst().setName("changed");
+
+        Film cached = filmStorage.getFilmById(film.getId());
+        assertThat(cached.getLikes()).isEmpty();
+        assertThat(cached.getName()).isEqualTo("film");
+    }
+
+    private Film createFilm() {
+        Film film = new Film();
+        film.setName("film");
+        film.setDescription("description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        film.setMpaRating(new MpaRating(1, "G"));
+        return film;
+    }
+}
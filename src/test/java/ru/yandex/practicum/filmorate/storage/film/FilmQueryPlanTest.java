@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.yandex.practicum.filmorate.storage.QueryPlans.TABLE_SCAN;
+import static ru.yandex.practicum.filmorate.storage.QueryPlans.explain;
+
+// Планы запросов FilmDbStorage, которые ходят по второму столбцу связующих таблиц
+@SpringBootTest
+@AutoConfigureTestDatabase
+public class FilmQueryPlanTest {
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public FilmQueryPlanTest(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Test
+    void shouldBuildRecommendationsWithoutTableScanTest() {
+        String plan = explain(jdbcTemplate, FilmDbStorage.RECOMMENDED_FILMS_SQL, 1L, 50, 1L, 10);
+
+        assertThat(plan).contains("idx_likes_user_film").doesNotContain(TABLE_SCAN);
+    }
+
+    @Test
+    void shouldFilterPopularFilmsByGenreFromReverseIndexTest() {
+        String plan = explain(jdbcTemplate, FilmDbStorage.popularFilmsSql(true, false, false), 1L, 10);
+
+        assertThat(plan).contains("idx_film_genres_genre_film");
+    }
+}
@@ -0,0 +1,94 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FilmSearchIndexTest {
+    private final FilmSearchIndex index = new FilmSearchIndex();
+    private final Map<Long, Long> likes = Map.of(1L, 1L, 2L, 10L, 3L, 5L);
+
+    @BeforeEach
+    void setUp() {
+        index.put(1, "Ёлки", "Новогодняя комедия");
+        index.put(2, "Комедия положений", "Фильм про ёлку");
+        index.put(3, "The Matrix", "Neo and the matrix of elks");
+    }
+
+    @Test
+    void shouldFoldCaseAndYoTest() {
+        assertThat(FilmSearchIndex.terms("Ёлки-Палки, THE matrix!")).containsExactly("елки", "палки", "the", "matrix");
+        assertThat(search("ЁЛКИ", true, true)).containsExactly(1);
+        assertThat(search("matrix", true, true)).containsExactly(3);
+    }
+
+    @Test
+    void shouldRankTitleMatchesAboveDescriptionAndThenByLikesTest() {
+        assertThat(search("комедия", true, true)).containsExactly(2, 1);
+        assertThat(search("комедия", false, true)).containsExactly(1);
+        assertThat(search("ел", true, true)).containsExactly(1, 2);
+        assertThat(search("фильм", true, false)).isEmpty();
+    }
+
+    @Test
+    void shouldMatchLastTermAsPrefixAndRequireAllTermsTest() {
+        assertThat(search("the mat", true, true)).containsExactly(3);
+        assertThat(search("mat the", true, true)).isEmpty();
+        assertThat(search("комедия полож", true, true)).containsExactly(2);
+        assertThat(search("   ", true, true)).isEmpty();
+    }
+
+    @Test
+    void shouldAcceptLimitAboveMatchCountTest() {
+        assertThat(index.search("комедия", true, true, Integer.MAX_VALUE, filmId -> 0L)).containsExactly(2, 1);
+    }
+
+    @Test
+    void shouldReindexUpdatedAndForgetRemovedFilmsTest() {
+        index.put(3, "Reloaded", "Sequel");
+        assertThat(search("matrix", true, true)).isEmpty();
+        assertThat(search("reload", true, true)).containsExactly(3);
+
+        index.remove(2);
+        assertThat(search("комедия", true, true)).containsExactly(1);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotLeaveStalePostingsUnderConcurrentUpdatesTest() throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 5_000; round++) {
+                Future<?> first = executor.submit(() -> {
+                    barrier.await();
+                    index.put(4, "alpha", null);
+                    return null;
+                });
+                Future<?> second = executor.submit(() -> {
+                    barrier.await();
+                    index.put(4, "beta", null);
+                    return null;
+                });
+                first.get();
+                second.get();
+
+                int matches = search("alpha", true, false).length + search("beta", true, false).length;
+                assertThat(matches).as("раунд %d", round).isEqualTo(1);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private long[] search(String query, boolean byTitle, boolean byDescription) {
+        return index.search(query, byTitle, byDescription, 10, filmId -> likes.getOrDefault(filmId, 0L));
+    }
+}
@@ -5,7 +5,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.MpaRating;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
@@ -13,8 +15,10 @@ import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 import java.time.LocalDate;
 import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @AutoConfigureTestDatabase
@@ -23,15 +27,18 @@ import static org.assertj.core.api.Assertions.assertThat;
 public class FilmStorageTest {
     private final FilmStorage filmStorage;
     private final UserStorage userStorage;
+    private final SearchFilmStorage searchFilmStorage;
     private Film film;
     private User user;
 
     @Autowired
     public FilmStorageTest(
             @Qualifier("filmDbStorage") FilmStorage filmStorage,
-            @Qualifier("userDbStorage") UserStorage userStorage) {
+            @Qualifier("userDbStorage") UserStorage userStorage,
+            SearchFilmStorage searchFilmStorage) {
         this.filmStorage = filmStorage;
         this.userStorage = userStorage;
+        this.searchFilmStorage = searchFilmStorage;
     }
 
     @BeforeAll
@@ -92,9 +99,132 @@ public class FilmStorageTest {
 
     @Test
     void shouldAddAndDeleteLikeTest() {
-        filmStorage.addLike(film.getId(), user.getId());
+        assertThat(filmStorage.addLike(film.getId(), user.getId())).isTrue();
+        assertThat(filmStorage.addLike(film.getId(), user.getId())).isFalse();
+        assertThatThrownBy(() -> filmStorage.addLike(film.getId(), 9999))
+                .isInstanceOf(NotFoundException.class);
         filmStorage.deleteLike(film.getId(), user.getId());
 
         assertThat(filmStorage.getFilmById(film.getId()).getLikes()).doesNotContain(user.getId());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldLoadLikesForAllAndPopularFilmsTest() {
+        filmStorage.addLike(film.getId(), user.getId());
+
+        assertThat(filmStorage.getAllFilms())
+                .first()
+                .satisfies(f -> assertThat(f.getLikes()).containsExactly(user.getId()));
+        assertThat(filmStorage.getPopularFilms(10))
+                .first()
+                .satisfies(f -> assertThat(f.getLikes()).containsExactly(user.getId()));
+
+        filmStorage.deleteLike(film.getId(), user.getId());
+    }
+
+    @Test
+    void shouldReplaceGenresOnUpdateTest() {
+        Film otherFilm = new Film();
+        otherFilm.setName("film2");
+        otherFilm.setDescription("description2");
+        otherFilm.setReleaseDate(LocalDate.of(2012, 1, 1));
+        otherFilm.setDuration(100);
+        otherFilm.setMpaRating(new MpaRating(1, null));
+        otherFilm.setGenres(Set.of(new Genre(1, null), new Genre(2, null)));
+        filmStorage.addFilm(otherFilm);
+        filmStorage.addLike(otherFilm.getId(), user.getId());
+
+        Film update = new Film();
+        update.setId(otherFilm.getId());
+        update.setName("film2 updated");
+        update.setDescription("description2");
+        update.setReleaseDate(LocalDate.of(2012, 1, 1));
+        update.setDuration(110);
+        update.setMpaRating(new MpaRating(2, null));
+        update.setGenres(Set.of(new Genre(3, null), new Genre(2, null)));
+        Film updatedFilm = filmStorage.updateFilm(update);
+
+        assertThat(updatedFilm.getGenres()).extracting(Genre::getId).containsExactly(2L, 3L);
+        assertThat(updatedFilm.getMpaRating().getName()).isEqualTo("PG");
+        assertThat(updatedFilm.getLikes()).containsExactly(user.getId());
+        assertThat(updatedFilm.getVersion()).isEqualTo(otherFilm.getVersion() + 2);
+        assertThat(filmStorage.getFilmById(otherFilm.getId()))
+                .usingRecursiveComparison()
+                .isEqualTo(updatedFilm);
+
+        filmStorage.deleteFilmById(otherFilm.getId());
+        assertThatThrownBy(() -> filmStorage.updateFilm(update)).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void shouldRecommendFilmsLikedBySimilarUsersTest() {
+        User similarUser = new User();
+        similarUser.setEmail("similar@example.com");
+        similarUser.setLogin("similar");
+        similarUser.setBirthday(LocalDate.of(1990, 1, 1));
+        userStorage.addUser(similarUser);
+
+        Film recommendedFilm = new Film();
+        recommendedFilm.setName("film2");
+        recommendedFilm.setDescription("description2");
+        recommendedFilm.setReleaseDate(LocalDate.of(2012, 1, 1));
+        recommendedFilm.setDuration(100);
+        recommendedFilm.setMpaRating(new MpaRating(1, "G"));
+        filmStorage.addFilm(recommendedFilm);
+
+        filmStorage.addLike(film.getId(), user.getId());
+        filmStorage.addLike(film.getId(), similarUser.getId());
+        filmStorage.addLike(recommendedFilm.getId(), similarUser.getId());
+
+        assertThat(filmStorage.getRecommendedFilms(user.getId(), 10))
+                .extracting(Film::getId)
+                .containsExactly(recommendedFilm.getId());
+        assertThat(filmStorage.getRecommendedFilms(similarUser.getId(), 10)).isEmpty();
+
+        filmStorage.deleteFilmById(recommendedFilm.getId());
+        userStorage.deleteUserById(similarUser.getId());
+        filmStorage.deleteLike(film.getId(), user.getId());
+    }
+
+    @Test
+    void shouldFilterPopularFilmsByGenreMpaAndYearTest() {
+        Film otherFilm = new Film();
+        otherFilm.setName("film3");
+        otherFilm.setDescription("description3");
+        otherFilm.setReleaseDate(LocalDate.of(2015, 6, 1));
+        otherFilm.setDuration(90);
+        otherFilm.setMpaRating(new MpaRating(2, "PG"));
+        otherFilm.setGenres(Set.of(new Genre(1, "Комедия")));
+        filmStorage.addFilm(otherFilm);
+
+        assertThat(filmStorage.getPopularFilms(10, 1L, null, null))
+                .extracting(Film::getId)
+                .containsExactly(otherFilm.getId());
+        assertThat(filmStorage.getPopularFilms(10, null, 1L, null))
+                .extracting(Film::getId)
+                .containsExactly(film.getId());
+        assertThat(filmStorage.getPopularFilms(10, null, null, 2015))
+                .extracting(Film::getId)
+                .containsExactly(otherFilm.getId());
+        assertThat(filmStorage.getPopularFilms(10, 1L, 2L, 2011)).isEmpty();
+
+        filmStorage.deleteFilmById(otherFilm.getId());
+    }
+
+    @Test
+    void shouldSearchFilmsByTitleAndDescriptionTest() {
+        // Фильм добавлен в обход декораторов, поэтому индекс перестраивается из таблицы
+        searchFilmStorage.loadIndex();
+
+        assertThat(searchFilmStorage.searchFilms("FILM", true, false, 10))
+                .extracting(Film::getId)
+                .containsExactly(film.getId());
+        assertThat(searchFilmStorage.searchFilms("descr", false, true, 10))
+                .extracting(Film::getId)
+                .containsExactly(film.getId());
+        assertThat(searchFilmStorage.searchFilms("descr", true, false, 10)).isEmpty();
+        assertThat(searchFilmStorage.searchFilms("film1 descr", true, true, 10))
+                .extracting(Film::getId)
+                .containsExactly(film.getId());
+    }
+}
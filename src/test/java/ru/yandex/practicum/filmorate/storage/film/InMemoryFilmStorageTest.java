@@ -0,0 +1,94 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InMemoryFilmStorageTest {
+    private final InMemoryFilmStorage filmStorage = new InMemoryFilmStorage(20);
+
+    @Test
+    void shouldAssignUniqueIdsAndCountLikesConcurrentlyTest() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Long>> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ids.add(executor.submit(() -> filmStorage.addFilm(createFilm()).getId()));
+        }
+        long firstId = ids.get(0).get();
+
+        List<Future<Boolean>> likes = new ArrayList<>();
+        for (long userId = 1; userId <= 500; userId++) {
+            long likeUserId = userId;
+            likes.add(executor.submit(() -> filmStorage.addLike(firstId, likeUserId)));
+        }
+        for (Future<Boolean> like : likes) {
+            assertThat(like.get()).isTrue();
+        }
+        executor.shutdown();
+
+        assertThat(ids.stream().map(this::getUnchecked).distinct()).hasSize(100);
+        assertThat(filmStorage.getFilmById(firstId).getLikes()).hasSize(500);
+        assertThat(filmStorage.getPopularFilms(1)).extracting(Film::getId).containsExactly(firstId);
+        assertThat(filmStorage.addLike(firstId, 1)).isFalse();
+    }
+
+    @Test
+    void shouldKeepLikesOnUpdateTest() {
+        Film film = filmStorage.addFilm(createFilm());
+        filmStorage.addLike(film.getId(), 1);
+
+        Film updatedFilm = createFilm();
+        updatedFilm.setId(film.getId());
+        updatedFilm.setName("updated");
+
+        assertThat(filmStorage.updateFilm(updatedFilm).getLikes()).containsExactly(1L);
+    }
+
+    @Test
+    void shouldTakeOnlyConfiguredNumberOfSimilarUsersTest() {
+        InMemoryFilmStorage singleSimilarUserStorage = new InMemoryFilmStorage(1);
+        for (InMemoryFilmStorage storage : List.of(filmStorage, singleSimilarUserStorage)) {
+            long[] ids = new long[4];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = storage.addFilm(createFilm()).getId();
+            }
+            storage.addLike(ids[0], 1);
+            storage.addLike(ids[1], 1);
+            storage.addLike(ids[0], 2);
+            storage.addLike(ids[1], 2);
+            storage.addLike(ids[2], 2);
+            storage.addLike(ids[0], 3);
+            storage.addLike(ids[3], 3);
+        }
+
+        assertThat(filmStorage.getRecommendedFilms(1, 10)).extracting(Film::getId).containsExactly(3L, 4L);
+        assertThat(singleSimilarUserStorage.getRecommendedFilms(1, 10)).extracting(Film::getId).containsExactly(3L);
+    }
+
+    private Film createFilm() {
+        Film film = new Film();
+        film.setName("film");
+        film.setDescription("description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        film.setMpaRating(new MpaRating(1, "G"));
+        return film;
+    }
+
+    private Long getUnchecked(Future<Long> future) {
+        try {
+            return future.get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LikeIndexTest {
+    private final LikeIndex index = new LikeIndex(ForkJoinPool.commonPool());
+
+    @Test
+    void shouldRecommendFilmsWeightedByLikeOverlapTest() {
+        // Пользователь 1 лайкнул 1 и 2; у пользователя 2 два общих лайка, у пользователя 3 — один
+        index.add(1, 1);
+        index.add(2, 1);
+        index.add(1, 2);
+        index.add(2, 2);
+        index.add(3, 2);
+        index.add(1, 3);
+        index.add(4, 3);
+        index.add(5, 3);
+        index.add(5, 2);
+
+        assertThat(index.getRecommendations(1, 10, 10)).containsExactly(5, 3, 4);
+        assertThat(index.getRecommendations(1, 1, 10)).containsExactly(5);
+        assertThat(index.getRecommendations(1, 10, 1)).containsExactly(3, 5);
+        assertThat(index.getRecommendations(42, 10, 10)).isEmpty();
+    }
+
+    @Test
+    void shouldNotSizeScoresByRequestedLimitTest() {
+        index.add(1, 1);
+        index.add(1, 2);
+        index.add(2, 2);
+
+        assertThat(index.getRecommendations(1, 50_000_000, 10)).containsExactly(2);
+    }
+
+    @Test
+    void shouldSplitOverlapCountingAcrossTasksTest() {
+        Map<Long, long[]> filmsByUser = new HashMap<>();
+        long[] films = new long[100];
+        for (int i = 0; i < films.length; i++) {
+            films[i] = i + 1;
+        }
+        filmsByUser.put(1L, films.clone());
+        filmsByUser.put(2L, new long[]{1, 50, 100, 200});
+        filmsByUser.put(3L, new long[]{99, 300});
+        index.load(filmsByUser);
+
+        assertThat(index.getRecommendations(1, 10, 10)).containsExactly(200, 300);
+    }
+
+    @Test
+    void shouldForgetRemovedLikesUsersAndFilmsTest() {
+        index.add(1, 1);
+        index.add(1, 2);
+        index.add(2, 2);
+        index.add(3, 2);
+
+        index.remove(2, 2);
+        assertThat(index.getRecommendations(1, 10, 10)).containsExactly(3);
+
+        index.removeFilm(3);
+        assertThat(index.getRecommendations(1, 10, 10)).isEmpty();
+
+        index.add(2, 2);
+        index.removeUser(2);
+        assertThat(index.getRecommendations(1, 10, 10)).isEmpty();
+    }
+}
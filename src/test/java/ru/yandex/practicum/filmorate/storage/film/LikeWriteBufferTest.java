@@ -0,0 +1,181 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.metrics.QueryCounter;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "filmorate.likes.write-behind.enabled=true",
+        "filmorate.likes.write-behind.flush-interval=1h"
+})
+@AutoConfigureTestDatabase
+public class LikeWriteBufferTest {
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final PopularFilmStorage popularFilmStorage;
+    private final LikeWriteBuffer buffer;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final QueryCounter queryCounter;
+
+    @Autowired
+    public LikeWriteBufferTest(@Qualifier("likeIndexFilmStorage") FilmStorage filmStorage,
+                               @Qualifier("friendGraphUserStorage") UserStorage userStorage,
+                               PopularFilmStorage popularFilmStorage,
+                               LikeWriteBuffer buffer,
+                               JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               QueryCounter queryCounter) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.popularFilmStorage = popularFilmStorage;
+        this.buffer = buffer;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.queryCounter = queryCounter;
+    }
+
+    @Test
+    void shouldReadPendingLikesBeforeFlushTest() {
+        Film film = filmStorage.addFilm(createFilm());
+        User user = userStorage.addUser(createUser("pending"));
+
+        assertThat(filmStorage.addLike(film.getId(), user.getId())).isTrue();
+        assertThat(filmStorage.addLike(film.getId(), user.getId())).isFalse();
+
+        assertThat(countLikeRows(film.getId())).isZero();
+        assertThat(filmStorage.getFilmById(film.getId()).getLikes()).containsExactly(user.getId());
+        assertThat(popularFilmStorage.getLikesCount(film.getId())).isEqualTo(1);
+
+        buffer.flush();
+
+        assertThat(buffer.size()).isZero();
+        assertThat(countLikeRows(film.getId())).isEqualTo(1);
+        assertThat(storedLikesCount(film.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCoalesceLikeAndUnlikeOfSameUserTest() {
+        Film film = filmStorage.addFilm(createFilm());
+        User user = userStorage.addUser(createUser("coalesce"));
+        User otherUser = userStorage.addUser(createUser("coalesce2"));
+
+        filmStorage.addLike(film.getId(), user.getId());
+        filmStorage.deleteLike(film.getId(), user.getId());
+        filmStorage.addLike(film.getId(), user.getId());
+        filmStorage.addLike(film.getId(), otherUser.getId());
+        filmStorage.deleteLike(film.getId(), otherUser.getId());
+
+        assertThat(buffer.size()).isEqualTo(2);
+        assertThat(filmStorage.getFilmById(film.getId()).getLikes()).containsExactly(user.getId());
+
+        buffer.flush();
+
+        assertThat(countLikeRows(film.getId())).isEqualTo(1);
+        assertThat(storedLikesCount(film.getId())).isEqualTo(1);
+        assertThat(popularFilmStorage.getLikesCount(film.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFlushPendingLikesBeforeUserDeletionTest() {
+        Film film = filmStorage.addFilm(createFilm());
+        User user = userStorage.addUser(createUser("deleted"));
+
+        filmStorage.addLike(film.getId(), user.getId());
+        userStorage.deleteUserById(user.getId());
+
+        assertThat(buffer.size()).isZero();
+        assertThat(countLikeRows(film.getId())).isZero();
+        assertThat(storedLikesCount(film.getId())).isZero();
+        assertThat(popularFilmStorage.getLikesCount(film.getId())).isZero();
+    }
+
+    @Test
+    void shouldKeepFlushedLikesWhenUserDeletionRollsBackTest() {
+        Film film = filmStorage.addFilm(createFilm());
+        User user = userStorage.addUser(createUser("rollback"));
+        filmStorage.addLike(film.getId(), user.getId());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            userStorage.deleteUserById(user.getId());
+            status.setRollbackOnly();
+        });
+
+        assertThat(buffer.size()).isZero();
+        assertThat(countLikeRows(film.getId())).isEqualTo(1);
+        assertThat(storedLikesCount(film.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectLikesOfMissingFilmOrUserBeforeBufferingTest() {
+        Film film = filmStorage.addFilm(createFilm());
+        User user = userStorage.addUser(createUser("missing"));
+
+        assertThatThrownBy(() -> filmStorage.addLike(film.getId(), 9999)).isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> filmStorage.addLike(9999, user.getId())).isInstanceOf(NotFoundException.class);
+
+        assertThat(buffer.size()).isZero();
+        assertThat(popularFilmStorage.getLikesCount(film.getId())).isZero();
+    }
+
+    @Test
+    void shouldBufferLikeOfKnownFilmAndCachedUserWithoutQueriesTest() {
+        Film film = filmStorage.addFilm(createFilm());
+        User user = userStorage.addUser(createUser("known"));
+        userStorage.getUserById(user.getId());
+
+        AtomicInteger queries = new AtomicInteger();
+        queryCounter.bind(queries);
+        try {
+            assertThat(filmStorage.addLike(film.getId(), user.getId())).isTrue();
+        } finally {
+            queryCounter.clear();
+        }
+
+        assertThat(queries.get()).isZero();
+        assertThat(buffer.size()).isEqualTo(1);
+    }
+
+    private int countLikeRows(long filmId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM likes WHERE film_id = ?", Integer.class, filmId);
+    }
+
+    private long storedLikesCount(long filmId) {
+        return jdbcTemplate.queryForObject("SELECT likes_count FROM films WHERE film_id = ?", Long.class, filmId);
+    }
+
+    private Film createFilm() {
+        Film film = new Film();
+        film.setName("film");
+        film.setDescription("description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        film.setMpaRating(new MpaRating(1, "G"));
+        return film;
+    }
+
+    private User createUser(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PartitionedPopularityRankingTest {
+    private final PartitionedPopularityRanking ranking = new PartitionedPopularityRanking();
+
+    @BeforeEach
+    void setUp() {
+        ranking.put(1, 1, new long[]{1, 2}, 2000, 5);
+        ranking.put(2, 2, new long[]{2}, 2000, 7);
+        ranking.put(3, 1, new long[]{1}, 2010, 3);
+        ranking.put(4, 3, new long[]{}, 2010, 9);
+    }
+
+    @Test
+    void shouldFilterByGenreMpaAndYearTest() {
+        assertThat(ranking.top(10)).containsExactly(4L, 2L, 1L, 3L);
+        assertThat(ranking.top(10, 2L, null, null)).containsExactly(2L, 1L);
+        assertThat(ranking.top(10, null, 1L, null)).containsExactly(1L, 3L);
+        assertThat(ranking.top(10, null, null, 2010)).containsExactly(4L, 3L);
+        assertThat(ranking.top(10, 1L, 1L, 2010)).containsExactly(3L);
+        assertThat(ranking.top(10, 6L, null, null)).isEmpty();
+        assertThat(ranking.top(1, 1L, null, null)).containsExactly(1L);
+    }
+
+    @Test
+    void shouldKeepPartitionsInSyncWithLikesAndUpdatesTest() {
+        ranking.change(3, 10);
+        assertThat(ranking.top(10, 1L, null, null)).containsExactly(3L, 1L);
+
+        ranking.update(3, 2, new long[]{2}, 2000);
+        assertThat(ranking.top(10, 1L, null, null)).containsExactly(1L);
+        assertThat(ranking.top(10, 2L, null, 2000)).containsExactly(3L, 2L, 1L);
+        assertThat(ranking.getLikes(3)).isEqualTo(13);
+
+        ranking.remove(3);
+        assertThat(ranking.top(10, 2L, null, null)).containsExactly(2L, 1L);
+        assertThat(ranking.top(10, null, 2L, null)).containsExactly(2L);
+    }
+
+    @Test
+    void shouldNotLoseLikesChangedDuringUpdateTest() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 3; thread++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ranking.change(1, 1);
+                }
+            }));
+        }
+        futures.add(executor.submit(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                ranking.update(1, 1 + i % 2, new long[]{3 + i % 2}, 2000);
+            }
+        }));
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Последнее обновление перенесло фильм в жанр 4 и рейтинг 2
+        assertThat(ranking.getLikes(1)).isEqualTo(30_005);
+        assertThat(ranking.top(10, 4L, null, null)).containsExactly(1L);
+        assertThat(ranking.top(10, 3L, null, null)).isEmpty();
+        assertThat(ranking.top(1, null, 2L, null)).containsExactly(1L);
+        assertThat(ranking.top(10, null, 1L, null)).containsExactly(3L);
+    }
+}
@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PopularityRankingTest {
+    private final PopularityRanking ranking = new PopularityRanking();
+
+    @Test
+    void shouldOrderByLikesDescAndIdAscTest() {
+        ranking.put(1, 2);
+        ranking.put(2, 5);
+        ranking.put(3, 2);
+        ranking.put(4, 0);
+
+        assertThat(ranking.top(10)).containsExactly(2L, 1L, 3L, 4L);
+        assertThat(ranking.top(2)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void shouldMoveFilmOnLikeChangesTest() {
+        ranking.put(1, 1);
+        ranking.put(2, 1);
+
+        ranking.change(2, 1);
+        assertThat(ranking.top(2)).containsExactly(2L, 1L);
+
+        ranking.change(2, -2);
+        assertThat(ranking.top(2)).containsExactly(1L, 2L);
+        assertThat(ranking.getLikes(2)).isZero();
+    }
+
+    @Test
+    void shouldIgnoreChangesForUnknownAndRemovedFilmsTest() {
+        ranking.put(1, 3);
+        ranking.remove(1);
+        ranking.change(1, 1);
+        ranking.change(2, 1);
+
+        assertThat(ranking.top(10)).isEmpty();
+        assertThat(ranking.size()).isZero();
+    }
+
+    @Test
+    void shouldKeepCountsUnderConcurrentChangesTest() throws Exception {
+        for (long filmId = 1; filmId <= 10; filmId++) {
+            ranking.put(filmId, 0);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    ranking.change(1 + i % 10, 1);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertThat(ranking.getLikes(5)).isEqualTo(800);
+        assertThat(ranking.top(20)).hasSize(10).startsWith(1L, 2L, 3L);
+    }
+}
@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+// Те же планы на схеме из миграций в режиме совместимости с PostgreSQL
+@ActiveProfiles("postgres")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class PostgresModeFilmQueryPlanTest extends FilmQueryPlanTest {
+
+    @Autowired
+    public PostgresModeFilmQueryPlanTest(JdbcTemplate jdbcTemplate) {
+        super(jdbcTemplate);
+    }
+}
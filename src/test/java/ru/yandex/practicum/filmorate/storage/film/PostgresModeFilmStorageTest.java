@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.test.context.ActiveProfiles;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+// Те же проверки FilmDbStorage на схеме из миграций в режиме совместимости с PostgreSQL
+@ActiveProfiles("postgres")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class PostgresModeFilmStorageTest extends FilmStorageTest {
+
+    @Autowired
+    public PostgresModeFilmStorageTest(
+            @Qualifier("filmDbStorage") FilmStorage filmStorage,
+            @Qualifier("userDbStorage") UserStorage userStorage,
+            SearchFilmStorage searchFilmStorage) {
+        super(filmStorage, userStorage, searchFilmStorage);
+    }
+}
@@ -0,0 +1,80 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Рекомендации из индекса в памяти и из SQL должны совпадать при одной и той же настройке
+@SpringBootTest(properties = "filmorate.recommendations.similar-users=1")
+@AutoConfigureTestDatabase
+public class RecommendationSettingsTest {
+    private final FilmStorage indexedStorage;
+    private final FilmStorage dbStorage;
+    private final UserStorage userStorage;
+
+    @Autowired
+    public RecommendationSettingsTest(@Qualifier("likeIndexFilmStorage") FilmStorage indexedStorage,
+                                      @Qualifier("filmDbStorage") FilmStorage dbStorage,
+                                      @Qualifier("friendGraphUserStorage") UserStorage userStorage) {
+        this.indexedStorage = indexedStorage;
+        this.dbStorage = dbStorage;
+        this.userStorage = userStorage;
+    }
+
+    @Test
+    void shouldLimitSimilarUsersInBothPathsTest() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            films.add(indexedStorage.addFilm(createFilm("film" + i)));
+        }
+        User user = userStorage.addUser(createUser("target"));
+        User closest = userStorage.addUser(createUser("closest"));
+        User distant = userStorage.addUser(createUser("distant"));
+
+        like(user, films.get(0), films.get(1));
+        like(closest, films.get(0), films.get(1), films.get(2));
+        like(distant, films.get(0), films.get(3), films.get(4));
+
+        assertThat(indexedStorage.getRecommendedFilms(user.getId(), 10)).extracting(Film::getId)
+                .containsExactly(films.get(2).getId());
+        assertThat(dbStorage.getRecommendedFilms(user.getId(), 10)).extracting(Film::getId)
+                .containsExactly(films.get(2).getId());
+    }
+
+    private void like(User user, Film... films) {
+        for (Film film : films) {
+            indexedStorage.addLike(film.getId(), user.getId());
+        }
+    }
+
+    private Film createFilm(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        film.setMpaRating(new MpaRating(1, "G"));
+        return film;
+    }
+
+    private User createUser(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.storage.reference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+public class ReferenceDataRegistryTest {
+    private final ReferenceDataRegistry referenceDataRegistry;
+
+    @Autowired
+    public ReferenceDataRegistryTest(ReferenceDataRegistry referenceDataRegistry) {
+        this.referenceDataRegistry = referenceDataRegistry;
+    }
+
+    @Test
+    void shouldLoadGenresAndMpaRatingsTest() {
+        assertThat(referenceDataRegistry.getAllGenres()).hasSize(6);
+        assertThat(referenceDataRegistry.getAllMpaRatings()).hasSize(5);
+        assertThat(referenceDataRegistry.getGenreById(1))
+                .hasFieldOrPropertyWithValue("id", 1L)
+                .hasFieldOrPropertyWithValue("name", "Комедия");
+        assertThat(referenceDataRegistry.getMpaRatingById(3))
+                .hasFieldOrPropertyWithValue("id", 3L)
+                .hasFieldOrPropertyWithValue("name", "PG-13");
+    }
+
+    @Test
+    void shouldReportUnknownIdsTest() {
+        assertThat(referenceDataRegistry.findGenre(100)).isNull();
+        assertThat(referenceDataRegistry.findMpaRating(0)).isNull();
+        assertThatThrownBy(() -> referenceDataRegistry.getGenreById(10))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("Жанр с id 10 не найден.");
+        assertThatThrownBy(() -> referenceDataRegistry.getMpaRatingById(-1))
+                .isInstanceOf(ValidationException.class);
+    }
+}
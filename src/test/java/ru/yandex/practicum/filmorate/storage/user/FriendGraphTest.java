@@ -0,0 +1,108 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FriendGraphTest {
+    private final FriendGraph graph = new FriendGraph();
+
+    @Test
+    void shouldKeepFriendsSortedAndIgnoreDuplicatesTest() {
+        assertThat(graph.add(1, 5)).isTrue();
+        assertThat(graph.add(1, 3)).isTrue();
+        assertThat(graph.add(1, 4)).isTrue();
+        assertThat(graph.add(1, 3)).isFalse();
+
+        assertThat(graph.getFriends(1)).containsExactly(3, 4, 5);
+        assertThat(graph.getFriends(3)).isEmpty();
+    }
+
+    @Test
+    void shouldFindCommonFriendsByMergeAndBySearchTest() {
+        graph.add(1, 2);
+        graph.add(1, 3);
+        graph.add(1, 4);
+        graph.add(5, 3);
+        graph.add(5, 4);
+        graph.add(5, 6);
+        LongStream.rangeClosed(10, 1000).forEach(id -> graph.add(7, id));
+        graph.add(7, 4);
+        graph.add(8, 4);
+        graph.add(8, 500);
+
+        assertThat(graph.getCommonFriends(1, 5)).containsExactly(3, 4);
+        assertThat(graph.getCommonFriends(7, 8)).containsExactly(4, 500);
+        assertThat(graph.getCommonFriends(8, 7)).containsExactly(4, 500);
+        assertThat(graph.getCommonFriends(1, 42)).isEmpty();
+    }
+
+    @Test
+    void shouldRemoveFriendshipsAndUsersTest() {
+        graph.add(1, 2);
+        graph.add(1, 3);
+        graph.add(2, 3);
+        graph.add(3, 1);
+
+        assertThat(graph.remove(1, 2)).isTrue();
+        assertThat(graph.remove(1, 2)).isFalse();
+        assertThat(graph.getFriends(1)).containsExactly(3);
+
+        graph.removeUser(3);
+
+        assertThat(graph.getFriends(1)).isEmpty();
+        assertThat(graph.getFriends(2)).isEmpty();
+        assertThat(graph.getFriends(3)).isEmpty();
+    }
+
+    @Test
+    void shouldLoadAdjacencyWithFollowersTest() {
+        Map<Long, long[]> adjacency = new HashMap<>();
+        adjacency.put(2L, new long[]{3, 1});
+        adjacency.put(1L, new long[]{3});
+        graph.load(adjacency);
+
+        assertThat(graph.getFriends(2)).containsExactly(1, 3);
+        assertThat(graph.getCommonFriends(1, 2)).containsExactly(3);
+
+        graph.removeUser(3);
+
+        assertThat(graph.getFriends(1)).isEmpty();
+        assertThat(graph.getFriends(2)).containsExactly(1);
+    }
+
+    @Test
+    void shouldRankRecommendationsByMutualFriendsTest() {
+        graph.add(1, 2);
+        graph.add(1, 3);
+        graph.add(1, 4);
+        graph.add(2, 5);
+        graph.add(3, 5);
+        graph.add(4, 5);
+        graph.add(2, 6);
+        graph.add(3, 6);
+        graph.add(2, 7);
+        graph.add(4, 8);
+        graph.add(2, 1);
+        graph.add(2, 3);
+
+        assertThat(graph.getRecommendations(1, 10, 100, Long.MAX_VALUE / 2)).containsExactly(5, 6, 7, 8);
+        assertThat(graph.getRecommendations(1, 2, 100, Long.MAX_VALUE / 2)).containsExactly(5, 6);
+        assertThat(graph.getRecommendations(5, 10, 100, Long.MAX_VALUE / 2)).isEmpty();
+    }
+
+    @Test
+    void shouldLimitFanOutOfRecommendationsTest() {
+        graph.add(1, 2);
+        graph.add(1, 3);
+        LongStream.rangeClosed(10, 1000).forEach(id -> graph.add(2, id));
+        graph.add(3, 999);
+
+        assertThat(graph.getRecommendations(1, 3, 1, Long.MAX_VALUE / 2)).containsExactly(10);
+        assertThat(graph.getRecommendations(1, 3, 1000, Long.MAX_VALUE / 2)).containsExactly(999, 10, 11);
+    }
+}
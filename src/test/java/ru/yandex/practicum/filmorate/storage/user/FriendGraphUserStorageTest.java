@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FriendGraphUserStorageTest {
+
+    @Test
+    void shouldApplyConcurrentAddAndDeleteToGraphInStorageOrderTest() throws Exception {
+        // Хранилище только запоминает последнюю записанную дружбу и уступает поток, расширяя окно гонки
+        Set<Long> storedFriends = ConcurrentHashMap.newKeySet();
+        InMemoryUserStorage delegate = new InMemoryUserStorage() {
+            @Override
+            public void addFriend(long userId, long friendId) {
+                storedFriends.add(friendId);
+                Thread.yield();
+            }
+
+            @Override
+            public void deleteFriend(long userId, long friendId) {
+                storedFriends.remove(friendId);
+                Thread.yield();
+            }
+        };
+        long userId = delegate.addUser(createUser("user")).getId();
+        long friendId = delegate.addUser(createUser("friend")).getId();
+        FriendGraphUserStorage userStorage = new FriendGraphUserStorage(delegate, null, 1000, Duration.ofMillis(50));
+
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 20_000; round++) {
+                Future<?> adding = executor.submit(() -> {
+                    barrier.await();
+                    userStorage.addFriend(userId, friendId);
+                    return null;
+                });
+                Future<?> deleting = executor.submit(() -> {
+                    barrier.await();
+                    userStorage.deleteFriend(userId, friendId);
+                    return null;
+                });
+                adding.get();
+                deleting.get();
+
+                boolean inGraph = !userStorage.getFriends(userId).isEmpty();
+                assertThat(inGraph).as("раунд %d", round).isEqualTo(storedFriends.contains(friendId));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private User createUser(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
@@ -0,0 +1,70 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InMemoryUserStorageTest {
+    private final InMemoryUserStorage userStorage = new InMemoryUserStorage();
+
+    @Test
+    void shouldKeepFriendshipTwoSidedUnderConcurrencyTest() throws Exception {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            users.add(userStorage.addUser(createUser(i)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (User user : users) {
+            for (User friend : users) {
+                if (user.getId() != friend.getId()) {
+                    futures.add(executor.submit(() -> userStorage.addFriend(user.getId(), friend.getId())));
+                }
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        futures.clear();
+        for (User friend : users.subList(1, users.size())) {
+            futures.add(executor.submit(() -> userStorage.deleteFriend(users.get(0).getId(), friend.getId())));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertThat(userStorage.getFriends(users.get(0).getId())).isEmpty();
+        assertThat(userStorage.getFriends(users.get(1).getId())).hasSize(48);
+        assertThat(userStorage.getCommonFriends(users.get(1).getId(), users.get(2).getId())).hasSize(47);
+    }
+
+    @Test
+    void shouldRemoveDeletedUserFromFriendsTest() {
+        User user = userStorage.addUser(createUser(1));
+        User friend = userStorage.addUser(createUser(2));
+        userStorage.addFriend(user.getId(), friend.getId());
+
+        userStorage.deleteUserById(user.getId());
+
+        assertThat(userStorage.getFriends(friend.getId())).isEmpty();
+    }
+
+    private User createUser(int index) {
+        User user = new User();
+        user.setEmail("user" + index + "@example.com");
+        user.setLogin("user" + index);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+// Те же планы на схеме из миграций в режиме совместимости с PostgreSQL
+@ActiveProfiles("postgres")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class PostgresModeUserQueryPlanTest extends UserQueryPlanTest {
+
+    @Autowired
+    public PostgresModeUserQueryPlanTest(JdbcTemplate jdbcTemplate) {
+        super(jdbcTemplate);
+    }
+}
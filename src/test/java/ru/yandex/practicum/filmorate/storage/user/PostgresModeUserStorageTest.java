@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.test.context.ActiveProfiles;
+
+// Те же проверки UserDbStorage на схеме из миграций в режиме совместимости с PostgreSQL
+@ActiveProfiles("postgres")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class PostgresModeUserStorageTest extends UserStorageTest {
+
+    @Autowired
+    public PostgresModeUserStorageTest(@Qualifier("userDbStorage") UserStorage userStorage) {
+        super(userStorage);
+    }
+}
@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.yandex.practicum.filmorate.storage.QueryPlans.TABLE_SCAN;
+import static ru.yandex.practicum.filmorate.storage.QueryPlans.explain;
+
+// Планы запросов UserDbStorage, которые ходят по второму столбцу связующих таблиц
+@SpringBootTest
+@AutoConfigureTestDatabase
+public class UserQueryPlanTest {
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public UserQueryPlanTest(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Test
+    void shouldReadLikedFilmsOfUserFromReverseIndexTest() {
+        String plan = explain(jdbcTemplate, UserDbStorage.LIKED_FILMS_SQL, 1L);
+
+        assertThat(plan).contains("idx_likes_user_film").doesNotContain(TABLE_SCAN);
+    }
+
+    @Test
+    void shouldJoinFriendsWithoutTableScanTest() {
+        String plan = explain(jdbcTemplate, UserDbStorage.FRIENDS_SQL, 1L);
+
+        assertThat(plan).doesNotContain(TABLE_SCAN);
+    }
+
+    // Эти запросы в коде не встречаются: так база ищет строки при каскадном удалении пользователя
+    // по внешним ключам likes.user_id и friendships.friend_id
+    @Test
+    void shouldCascadeUserDeletionWithoutTableScanTest() {
+        String incomingFriendships = explain(jdbcTemplate, "SELECT user_id FROM friendships WHERE friend_id = ?", 1L);
+
+        assertThat(incomingFriendships).contains("idx_friendships_friend_user").doesNotContain(TABLE_SCAN);
+        assertThat(explain(jdbcTemplate, "DELETE FROM likes WHERE user_id = ?", 1L)).doesNotContain(TABLE_SCAN);
+        assertThat(explain(jdbcTemplate, "DELETE FROM friendships WHERE friend_id = ?", 1L))
+                .doesNotContain(TABLE_SCAN);
+    }
+}
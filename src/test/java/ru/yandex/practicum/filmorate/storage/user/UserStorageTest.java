@@ -5,13 +5,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @AutoConfigureTestDatabase
@@ -92,6 +97,9 @@ public class UserStorageTest {
         User savedUser2 = userStorage.addUser(user2);
 
         userStorage.addFriend(savedUser1.getId(), savedUser2.getId());
+        userStorage.addFriend(savedUser1.getId(), savedUser2.getId());
+        assertThatThrownBy(() -> userStorage.addFriend(savedUser1.getId(), 9999))
+                .isInstanceOf(NotFoundException.class);
 
         Set<User> friends = userStorage.getFriends(savedUser1.getId());
         assertThat(friends)
@@ -101,4 +109,74 @@ public class UserStorageTest {
                 .hasFieldOrPropertyWithValue("id", savedUser2.getId())
                 .hasFieldOrPropertyWithValue("name", "User Two");
     }
-}
\ No newline at end of file
+
+    @Test
+    @Order(4)
+    void shouldPageAndStreamUsersById() {
+        for (int i = 0; i < 3; i++) {
+            User user = new User();
+            user.setLogin("page_user" + i);
+            user.setEmail("page_user" + i + "@example.com");
+            user.setBirthday(LocalDate.of(1995, 5, 5));
+            userStorage.addUser(user);
+        }
+
+        List<User> firstPage = userStorage.getUsersPage(0, 2);
+        List<User> secondPage = userStorage.getUsersPage(firstPage.get(1).getId(), 2);
+        List<Long> streamedIds = new ArrayList<>();
+        userStorage.streamAllUsers(user -> streamedIds.add(user.getId()));
+
+        assertThat(firstPage).hasSize(2);
+        assertThat(secondPage).hasSize(2);
+        assertThat(secondPage.get(0).getId()).isGreaterThan(firstPage.get(1).getId());
+        assertThat(streamedIds).isSorted().hasSize(userStorage.getAllUsers().size());
+    }
+
+    @Test
+    @Order(5)
+    void shouldRecommendFriendsOfFriendsByMutualFriends() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            User user = new User();
+            user.setLogin("fof_user" + i);
+            user.setEmail("fof_user" + i + "@example.com");
+            user.setBirthday(LocalDate.of(1995, 5, 5));
+            users.add(userStorage.addUser(user));
+        }
+        long[] ids = users.stream().mapToLong(User::getId).toArray();
+        userStorage.addFriend(ids[0], ids[1]);
+        userStorage.addFriend(ids[0], ids[2]);
+        userStorage.addFriend(ids[1], ids[3]);
+        userStorage.addFriend(ids[2], ids[3]);
+        userStorage.addFriend(ids[1], ids[4]);
+        userStorage.addFriend(ids[1], ids[2]);
+        userStorage.addFriend(ids[1], ids[0]);
+
+        List<User> recommendations = userStorage.getFriendRecommendations(ids[0], 10);
+
+        assertThat(recommendations).extracting(User::getId).containsExactly(ids[3], ids[4]);
+        assertThat(userStorage.getFriendRecommendations(ids[0], 1)).extracting(User::getId).containsExactly(ids[3]);
+    }
+
+    @Test
+    @Order(6)
+    void shouldLoadFriendsOfSeveralUsersInOneCall() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            User user = new User();
+            user.setLogin("batch_user" + i);
+            user.setEmail("batch_user" + i + "@example.com");
+            user.setBirthday(LocalDate.of(1995, 5, 5));
+            users.add(userStorage.addUser(user));
+        }
+        long[] ids = users.stream().mapToLong(User::getId).toArray();
+        userStorage.addFriend(ids[0], ids[1]);
+        userStorage.addFriend(ids[0], ids[2]);
+
+        Map<Long, Set<User>> friends = userStorage.getFriendsByUserIds(List.of(ids[0], ids[1], 9999L));
+
+        assertThat(friends).containsOnlyKeys(ids[0], ids[1]);
+        assertThat(friends.get(ids[0])).extracting(User::getId).containsExactlyInAnyOrder(ids[1], ids[2]);
+        assertThat(friends.get(ids[1])).isEmpty();
+    }
+}